@@ -120,8 +120,8 @@ plugins {
     // https://docs.spring.io/spring-boot/docs/current/gradle-plugin/reference/htmlsingle/#build-image
     id("org.springframework.boot") version libs.versions.springBootPlugin.get()
 
-    // Spring AOT: Kommentar entfernen
-    //id("org.graalvm.buildtools.native") version libs.versions.graalvm.get()
+    // Spring AOT und GraalVM Native Image: nativeCompile
+    id("org.graalvm.buildtools.native") version libs.versions.graalvm.get()
 
     // https://github.com/tbroyer/gradle-errorprone-plugin
     // https://errorprone.info/docs/installation
@@ -322,10 +322,15 @@ dependencies {
     // HttpGraphQlClient benoetigt WebClient mit Project Reactor
     implementation("org.springframework.boot:spring-boot-starter-webflux")
     implementation("org.springframework.boot:spring-boot-starter-json")
+    // CBOR und Smile als binaere Formate fuer GET-Requests anderer Microservices
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
     implementation("org.springframework.boot:spring-boot-starter-graphql")
     implementation("org.springframework.boot:spring-boot-starter-hateoas")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
+    implementation("org.springframework.boot:spring-boot-starter-aop")
+    implementation("com.github.ben-manes.caffeine:caffeine")
     //implementation("org.springframework.cloud:spring-cloud-starter-kubernetes-client")
 
     runtimeOnly("org.postgresql:postgresql")
@@ -333,6 +338,12 @@ dependencies {
     runtimeOnly("com.oracle.database.jdbc:ojdbc11")
     runtimeOnly("com.h2database:h2")
 
+    // nicht-blockierende Leseschnittstelle mit R2DBC
+    implementation("org.springframework:spring-r2dbc")
+    implementation("io.r2dbc:r2dbc-pool")
+    runtimeOnly("org.postgresql:r2dbc-postgresql")
+    runtimeOnly("io.r2dbc:r2dbc-h2")
+
     // Flyway unterstuetzt nur Oracle 21 in der lizenzpflichtigen Version: https://documentation.red-gate.com/fd/oracle-184127602.html
     // org.flywaydb.core.internal.database.DatabaseTypeRegister.getDatabaseTypeForConnection()
     implementation("org.flywaydb:flyway-core")
@@ -372,7 +383,7 @@ dependencies {
     // https://piotrminkowski.com/2023/09/05/speed-up-java-startup-on-kubernetes-with-crac
     // https://github.com/CRaC/example-spring-boot
     // https://github.com/sdeleuze/spring-boot-crac-demo
-    //implementation("org.crac:crac:${libs.versions.crac.get()}")
+    implementation("org.crac:crac:${libs.versions.crac.get()}")
 
     compileOnly("org.projectlombok:lombok")
     implementation("org.mapstruct:mapstruct:${libs.versions.mapstruct.get()}")
@@ -534,36 +545,50 @@ tasks.named("bootJar", org.springframework.boot.gradle.tasks.bundling.BootJar::c
     }
 }
 
-// Spring AOT: Kommentar entfernen
-//tasks.named("processAot", org.springframework.boot.gradle.tasks.aot.ProcessAot::class.java) {
-//    if (enablePreview != null) {
-//        jvmArguments = if (jvmArguments.get().isEmpty()) {
-//            listOf(enablePreview)
-//        } else {
-//            val args = jvmArguments.get().toMutableList()
-//            args.add(enablePreview)
-//            args
-//        }
-//    }
-//}
-//tasks.named<JavaCompile>("compileAotJava") {
-//    with(options) {
-//        with(compilerArgs) {
-//            add("--add-opens")
-//            add("--add-exports")
-//            add("-Amapstruct.defaultComponentModel=spring")
-//            if (enablePreview != null) {
-//                add(enablePreview)
-//            }
-//        }
-//        errorprone.errorproneArgs.add("-Xep:MissingSummary:OFF")
-//    }
-//}
-//tasks.named("nativeCompile", org.graalvm.buildtools.gradle.tasks.BuildNativeImageTask::class.java) {
-//    if (enablePreview != null) {
-//        options.get().asCompileOptions().jvmArgs.add("--enable-preview")
-//    }
-//}
+// Spring AOT und GraalVM Native Image
+tasks.named("processAot", org.springframework.boot.gradle.tasks.aot.ProcessAot::class.java) {
+    if (enablePreview != null) {
+        jvmArguments = if (jvmArguments.get().isEmpty()) {
+            listOf(enablePreview)
+        } else {
+            val args = jvmArguments.get().toMutableList()
+            args.add(enablePreview)
+            args
+        }
+    }
+}
+tasks.named<JavaCompile>("compileAotJava") {
+    with(options) {
+        with(compilerArgs) {
+            add("-Amapstruct.defaultComponentModel=spring")
+            if (enablePreview != null) {
+                add(enablePreview)
+            }
+        }
+        errorprone.errorproneArgs.add("-Xep:MissingSummary:OFF")
+    }
+}
+// https://graalvm.github.io/native-build-tools/latest/gradle-plugin.html
+graalvmNative {
+    binaries {
+        named("main") {
+            imageName = project.name
+            if (enablePreview != null) {
+                buildArgs.add(enablePreview)
+            }
+            buildArgs.add("-H:+ReportExceptionStackTraces")
+        }
+        named("test") {
+            if (enablePreview != null) {
+                buildArgs.add(enablePreview)
+            }
+        }
+    }
+    // Metadaten z.B. fuer Caffeine, Hibernate und PostgreSQL https://github.com/oracle/graalvm-reachability-metadata
+    metadataRepository {
+        enabled = true
+    }
+}
 
 // https://github.com/paketo-buildpacks/spring-boot
 tasks.named("bootBuildImage", org.springframework.boot.gradle.tasks.bundling.BootBuildImage::class.java) {
@@ -706,6 +731,7 @@ tasks.named<Test>("test") {
             "unit" -> setOf("unit")
             "service-read" -> setOf("service-read")
             "service-write" -> setOf("service-write")
+            "binary-formats" -> setOf("binary-formats")
             else -> setOf("integration", "unit")
         }
     }
@@ -0,0 +1,74 @@
+# Copyright (C) 2023 -  Juergen Zimmermann, Hochschule Karlsruhe
+#
+# This program is free software: you can redistribute it and/or modify
+# it under the terms of the GNU General Public License as published by
+# the Free Software Foundation, either version 3 of the License, or
+# (at your option) any later version.
+#
+# This program is distributed in the hope that it will be useful,
+# but WITHOUT ANY WARRANTY; without even the implied warranty of
+# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+# GNU General Public License for more details.
+#
+# You should have received a copy of the GNU General Public License
+# along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+
+# Vergleich der Formate HAL+JSON, CBOR und Smile bei GET /rest/{id} und GET /rest: je Format und Pfad werden die
+# Groesse des Response-Bodys und die mittlere Antwortzeit ueber viele Requests ausgegeben. Die Antwortzeit enthaelt die
+# Serialisierung im Server und die Uebertragung; die Deserialisierung im Client ist nicht enthalten, weil
+# Invoke-WebRequest den Body bei CBOR und Smile nicht parst. HAL+JSON wird ohne gzip angefordert, damit die Groessen
+# vergleichbar sind. Die Header "Server-Timing" enthalten bei "app.server-timing.enabled: true" die Serialisierung.
+# Serialisierung und Deserialisierung mit denselben ObjectMappern misst DozentMediaTypesTest:
+# .\gradlew test -Ptest=binary-formats
+
+# Aufruf:   .\binary-formats.ps1 [-requests 200] [-id 00000000-0000-0000-0000-000000000001] [-token <JWT>]
+
+# "Param" muss in der 1. Zeile sein
+Param (
+  [int]$requests = 200,
+  [string]$id = '00000000-0000-0000-0000-000000000001',
+  [string]$suche = 'name=a',
+  [string]$token = '',
+  [string]$baseUrl = 'https://localhost:8080'
+)
+
+Set-StrictMode -Version Latest
+
+$versionMinimum = [Version]'7.5.0'
+$versionCurrent = $PSVersionTable.PSVersion
+if ($versionMinimum -gt $versionCurrent) {
+  throw "PowerShell $versionMinimum statt $versionCurrent erforderlich"
+}
+
+$host.ui.RawUI.WindowTitle = 'binary-formats'
+$ProgressPreference = 'SilentlyContinue'
+
+if ($token -eq '') {
+  $login = @{ username='admin'; password='p' } | ConvertTo-Json
+  $token = (Invoke-RestMethod -Uri "$baseUrl/auth/login" -Method 'Post' -Body $login `
+    -Headers @{ 'Content-Type'='application/json' } -SkipCertificateCheck).access_token
+}
+
+$formate = @('application/hal+json', 'application/cbor', 'application/x-jackson-smile')
+$pfade = @("/rest/$id", "/rest?$suche")
+
+foreach ($pfad in $pfade) {
+  foreach ($format in $formate) {
+    $headers = @{ Accept=$format; 'Accept-Encoding'='identity'; Authorization="Bearer $token" }
+    $bytes = 0
+    $dauerMs = 0.0
+    for ($i = 0; $i -lt $requests; $i++) {
+      $stopwatch = [Diagnostics.Stopwatch]::StartNew()
+      $response = Invoke-WebRequest -Uri "$baseUrl$pfad" -Headers $headers -SkipCertificateCheck -SkipHttpErrorCheck
+      $stopwatch.Stop()
+      if ($response.StatusCode -ne 200) {
+        throw "$pfad mit $format`: Statuscode $($response.StatusCode)"
+      }
+      $bytes = $response.RawContentLength
+      $dauerMs += $stopwatch.Elapsed.TotalMilliseconds
+    }
+    Write-Output ('{0,-30}  {1,-28}  bytes={2,8}  antwortzeit={3,7:N2} ms' -f `
+      $pfad, $format, $bytes, ($dauerMs / $requests))
+  }
+}
@@ -0,0 +1,109 @@
+# Copyright (C) 2023 -  Juergen Zimmermann, Hochschule Karlsruhe
+#
+# This program is free software: you can redistribute it and/or modify
+# it under the terms of the GNU General Public License as published by
+# the Free Software Foundation, either version 3 of the License, or
+# (at your option) any later version.
+#
+# This program is distributed in the hope that it will be useful,
+# but WITHOUT ANY WARRANTY; without even the implied warranty of
+# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+# GNU General Public License for more details.
+#
+# You should have received a copy of the GNU General Public License
+# along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+# Lasttest fuer das adaptive Limit gleichzeitiger Requests ("app.concurrency-limit"): je Stufe feuern immer mehr
+# parallele Clients GET-Requests und mit dem Anteil "schreibanteil" (in Prozent) POST-Requests ab, die jeweils einen
+# neuen Dozenten mit eindeutiger Email und eindeutigem Benutzernamen anlegen. Ausgegeben werden je Stufe der Goodput,
+# d.h. erfolgreiche Requests pro Sekunde, davon die erfolgreichen POST-Requests, die Anzahl der Abweisungen mit
+# Statuscode 503 und die mittlere Antwortzeit der erfolgreichen Requests.
+# Mit Limit bleibt der Goodput bei Ueberlast etwa konstant, ohne Limit ("app.concurrency-limit.enabled: false")
+# sinkt er, weil sich die Requests im Hikari-Pool stauen. Weil alle Clients denselben Benutzer verwenden, muss die
+# Begrenzung je Client vorher abgeschaltet werden: "app.rate-limit.enabled: false".
+
+# Aufruf:   .\overload.ps1 [-stufen 8,32,128,512] [-sekunden 20] [-schreibanteil 10] [-token <JWT>]
+
+# "Param" muss in der 1. Zeile sein
+Param (
+  [int[]]$stufen = @(8, 32, 128, 512),
+  [int]$sekunden = 20,
+  [ValidateRange(0, 100)]
+  [int]$schreibanteil = 10,
+  [string]$token = '',
+  [string]$baseUrl = 'https://localhost:8080'
+)
+
+Set-StrictMode -Version Latest
+
+$versionMinimum = [Version]'7.5.0'
+$versionCurrent = $PSVersionTable.PSVersion
+if ($versionMinimum -gt $versionCurrent) {
+  throw "PowerShell $versionMinimum statt $versionCurrent erforderlich"
+}
+
+$host.ui.RawUI.WindowTitle = 'overload'
+$ProgressPreference = 'SilentlyContinue'
+
+if ($token -eq '') {
+  $login = @{ username='admin'; password='p' } | ConvertTo-Json
+  $token = (Invoke-RestMethod -Uri "$baseUrl/auth/login" -Method 'Post' -Body $login `
+    -Headers @{ 'Content-Type'='application/json' } -SkipCertificateCheck).access_token
+}
+
+$pfade = @('/rest/00000000-0000-0000-0000-000000000001', '/rest?name=a', '/rest/name/M')
+# Kennung des Laufs, damit Emails und Benutzernamen auch bei wiederholten Laeufen eindeutig sind
+$lauf = '{0:x4}' -f (Get-Random -Maximum 65536)
+
+foreach ($clients in $stufen) {
+  $ende = (Get-Date).AddSeconds($sekunden)
+  $ergebnisse = 1..$clients | ForEach-Object -ThrottleLimit $clients -Parallel {
+    $ok = 0
+    $okSchreibend = 0
+    $abgewiesen = 0
+    $fehler = 0
+    $dauerMs = 0.0
+    $client = $_
+    $index = $_
+    $neu = 0
+    while ((Get-Date) -lt $using:ende) {
+      $schreibend = (Get-Random -Maximum 100) -lt $using:schreibanteil
+      $stopwatch = [Diagnostics.Stopwatch]::StartNew()
+      if ($schreibend) {
+        $username = "l$($using:lauf)$($client)x$($neu++)"
+        $dozent = @{
+          name='Lasttest'; email="$username@last.example.com"; geburtsdatum='2000-01-31'
+          homepage='https://www.last.example.com'; geschlecht='W'; adresse=@{ plz='76133'; ort='Karlsruhe' }
+          username=$username; password='Lasttest-p1!'
+        } | ConvertTo-Json
+        $response = Invoke-WebRequest -Uri "$($using:baseUrl)/rest" -Method 'Post' -Body $dozent `
+          -SkipCertificateCheck -SkipHttpErrorCheck `
+          -Headers @{ 'Content-Type'='application/json'; Authorization="Bearer $($using:token)" }
+      } else {
+        $pfad = $using:pfade[$index++ % $using:pfade.Length]
+        $response = Invoke-WebRequest -Uri "$($using:baseUrl)$pfad" -SkipCertificateCheck -SkipHttpErrorCheck `
+          -Headers @{ Accept='application/hal+json'; Authorization="Bearer $($using:token)" }
+      }
+      $stopwatch.Stop()
+      switch ($response.StatusCode) {
+        { $_ -lt 300 } {
+          $ok++
+          if ($schreibend) { $okSchreibend++ }
+          $dauerMs += $stopwatch.Elapsed.TotalMilliseconds
+        }
+        503 { $abgewiesen++ }
+        default { $fehler++ }
+      }
+    }
+    [PSCustomObject]@{ Ok=$ok; OkSchreibend=$okSchreibend; Abgewiesen=$abgewiesen; Fehler=$fehler; DauerMs=$dauerMs }
+  }
+
+  $ok = ($ergebnisse | Measure-Object -Property Ok -Sum).Sum
+  $okSchreibend = ($ergebnisse | Measure-Object -Property OkSchreibend -Sum).Sum
+  $abgewiesen = ($ergebnisse | Measure-Object -Property Abgewiesen -Sum).Sum
+  $fehler = ($ergebnisse | Measure-Object -Property Fehler -Sum).Sum
+  $dauerMs = ($ergebnisse | Measure-Object -Property DauerMs -Sum).Sum
+  $mittel = if ($ok -gt 0) { $dauerMs / $ok } else { 0 }
+  $format = 'clients={0,4}  goodput={1,8:N1}/s  davon post={2,7:N1}/s  503={3,7}  fehler={4,5}  antwortzeit={5,7:N1} ms'
+  Write-Output ($format -f $clients, ($ok / $sekunden), ($okSchreibend / $sekunden), $abgewiesen, $fehler, $mittel)
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Spring-Konfiguration für Properties "app.admission.*". Die Summe aus readPermits, writePermits und streamPermits
+ * sollte nicht größer als "spring.datasource.hikari.maximum-pool-size" sein.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param enabled true, falls die Zugriffe auf die Anwendungslogik begrenzt werden
+ * @param readPermits Maximale Anzahl gleichzeitiger Aufrufe von DozentReadService
+ * @param writePermits Maximale Anzahl gleichzeitiger Aufrufe von DozentWriteService
+ * @param streamPermits Maximale Anzahl gleichzeitiger Streams, z.B. GET /rest und GET /rest/stream
+ * @param maxWait Maximale Wartezeit auf eine Zulassung, danach Statuscode 503
+ * @param retryAfter Wert für den Response-Header "Retry-After" beim Statuscode 503
+ */
+@ConfigurationProperties(prefix = "app.admission")
+public record AdmissionProps(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("5")
+    int readPermits,
+
+    @DefaultValue("3")
+    int writePermits,
+
+    @DefaultValue("2")
+    int streamPermits,
+
+    @DefaultValue("500ms")
+    Duration maxWait,
+
+    @DefaultValue("1s")
+    Duration retryAfter) {
+}
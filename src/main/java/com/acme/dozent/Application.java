@@ -5,6 +5,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.hateoas.config.EnableHypermediaSupport;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -22,12 +23,30 @@ import static org.springframework.hateoas.support.WebStack.WEBMVC;
  */
 @SpringBootApplication(proxyBeanMethods = false)
 @Import({ApplicationConfig.class, DevConfig.class})
-@EnableConfigurationProperties({KeycloakProps.class, MailProps.class})
+@EnableConfigurationProperties({
+    AdmissionProps.class,
+    ConcurrencyLimitProps.class,
+    DeadlineProps.class,
+    GraphQlProps.class,
+    IdempotencyProps.class,
+    KeycloakProps.class,
+    MailProps.class,
+    NegativeLookupProps.class,
+    QueryBudgetProps.class,
+    QueryCacheProps.class,
+    RateLimitProps.class,
+    ReplicaProps.class,
+    ResponseCacheProps.class,
+    ServerTimingProps.class,
+    SlowQueryProps.class,
+    WarmupProps.class
+})
 @EnableHypermediaSupport(type = HAL, stacks = WEBMVC)
 @EnableJpaRepositories
 @EnableWebSecurity
 @EnableMethodSecurity
 @EnableAsync
+@ImportRuntimeHints(ApplicationRuntimeHints.class)
 @SuppressWarnings({"ImplicitSubclassInspection", "ClassUnconnectedToPackage"})
 public final class Application {
     private Application() {
@@ -1,12 +1,15 @@
 package com.acme.dozent;
 
+import com.acme.dozent.controller.DozentWarmupConfig;
+import com.acme.dozent.graphql.GraphQlConfig;
 import com.acme.dozent.security.KeycloakClientConfig;
 import com.acme.dozent.security.SecurityConfig;
 
 /**
  * Konfigurationsklasse für die Anwendung bzw. den Microservice.
  */
-final class ApplicationConfig implements SecurityConfig, KeycloakClientConfig {
+final class ApplicationConfig
+    implements SecurityConfig, KeycloakClientConfig, GraphQlConfig, DozentWarmupConfig {
     ApplicationConfig() {
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent;
+
+import com.acme.dozent.entity.Adresse_;
+import com.acme.dozent.entity.Dozent_;
+import com.acme.dozent.entity.Kurs_;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.stream.Stream;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * Hinweise für GraalVM Native Image zu Reflection, Ressourcen und JDK-Proxies, die Spring AOT nicht selbst aus den
+ * Bean-Definitionen ableiten kann.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+final class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+    @Override
+    public void registerHints(@NonNull final RuntimeHints hints, @Nullable final ClassLoader classLoader) {
+        // statisches Metamodell: Hibernate setzt die Attribute von Dozent_ usw. beim Start durch Reflection
+        Stream.of(Dozent_.class, Adresse_.class, Kurs_.class).forEach(metamodel -> hints.reflection()
+            .registerType(metamodel, MemberCategory.PUBLIC_FIELDS, MemberCategory.DECLARED_FIELDS));
+
+        // GET /rest/{id} liefert die mit Jackson serialisierten Bytes aus DozentResponseCache, d.h. DozentModel ist
+        // kein Rueckgabetyp eines Controllers und wird von Spring AOT nicht erkannt
+        hints.reflection().registerType(
+            TypeReference.of("com.acme.dozent.controller.DozentModel"),
+            MemberCategory.DECLARED_FIELDS,
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_PUBLIC_METHODS
+        );
+
+        // Argon2 durch Bouncy Castle: nur zur Laufzeit im Classpath
+        Stream.of(
+            "org.bouncycastle.crypto.generators.Argon2BytesGenerator",
+            "org.bouncycastle.crypto.params.Argon2Parameters",
+            "org.bouncycastle.crypto.params.Argon2Parameters$Builder"
+        ).forEach(type -> hints.reflection().registerType(
+            TypeReference.of(type),
+            MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+            MemberCategory.INVOKE_PUBLIC_METHODS
+        ));
+
+        // Flyway: Spring Boot registriert nur den Default-Pfad db/migration
+        hints.resources().registerPattern("db/migration/postgresql/*.sql");
+
+        // ProfilingDataSource ummantelt die JDBC-Objekte durch JDK-Proxies
+        Stream.of(Connection.class, Statement.class, PreparedStatement.class, CallableStatement.class, ResultSet.class)
+            .forEach(type -> hints.proxies().registerJdkProxy(type));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Spring-Konfiguration für Properties "app.concurrency-limit.*". Das Limit für gleichzeitige Requests wird getrennt
+ * für DozentGetController und DozentWriteController aus den gemessenen Antwortzeiten ermittelt.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param enabled true, falls die gleichzeitigen Requests adaptiv begrenzt werden
+ * @param initialLimit Limit beim Start
+ * @param minLimit Untergrenze für das Limit
+ * @param maxLimit Obergrenze für das Limit
+ * @param tolerance Faktor, um den die aktuelle Antwortzeit über der langfristigen liegen darf, ohne dass das Limit
+ *                  sinkt
+ * @param smoothing Gewichtung eines neuen Limits gegenüber dem bisherigen zwischen 0 und 1
+ * @param longWindow Anzahl der Messwerte für den gleitenden Durchschnitt der langfristigen Antwortzeit
+ * @param retryAfter Wert für den Response-Header "Retry-After" beim Statuscode 503
+ */
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public record ConcurrencyLimitProps(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("20")
+    int initialLimit,
+
+    @DefaultValue("4")
+    int minLimit,
+
+    @DefaultValue("200")
+    int maxLimit,
+
+    @DefaultValue("1.5")
+    double tolerance,
+
+    @DefaultValue("0.2")
+    double smoothing,
+
+    @DefaultValue("600")
+    int longWindow,
+
+    @DefaultValue("1s")
+    Duration retryAfter) {
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Spring-Konfiguration für Properties "app.graphql.*".
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param maxDepth Maximale Schachtelungstiefe einer Query
+ * @param maxComplexity Maximale Komplexität einer Query, d.h. Anzahl der angefragten Felder
+ */
+@ConfigurationProperties(prefix = "app.graphql")
+public record GraphQlProps(
+    @DefaultValue("5")
+    int maxDepth,
+
+    @DefaultValue("100")
+    int maxComplexity) {
+}
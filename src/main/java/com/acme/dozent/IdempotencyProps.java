@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Spring-Konfiguration für Properties "app.idempotency.*".
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param enabled true, falls der Header "Idempotency-Key" bei POST-Requests berücksichtigt wird
+ * @param maxKeys Maximale Anzahl gespeicherter Idempotency-Keys
+ * @param ttl Dauer, wie lange ein Idempotency-Key gespeichert wird
+ * @param maxWait Maximale Wartezeit auf das Ergebnis eines gleichzeitigen Requests mit demselben Key
+ */
+@ConfigurationProperties(prefix = "app.idempotency")
+public record IdempotencyProps(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("10000")
+    int maxKeys,
+
+    @DefaultValue("24h")
+    Duration ttl,
+
+    @DefaultValue("10s")
+    Duration maxWait) {
+}
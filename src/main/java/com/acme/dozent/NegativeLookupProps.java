@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Spring-Konfiguration für Properties "app.negative-lookup.*".
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param enabled true, falls Bloom-Filter für Emailadressen und Cache für nicht gefundene IDs verwendet werden
+ * @param expectedEmails Erwartete Anzahl an Emailadressen, mindestens aber die doppelte Anzahl beim Aufbau
+ * @param falsePositiveRate Anteil der unbekannten Emailadressen, für die trotzdem die DB abgefragt wird
+ * @param missingIdTtl Dauer, für die eine nicht gefundene ID ohne DB-Zugriff als nicht vorhanden gilt
+ * @param maxMissingIds Maximale Anzahl an nicht gefundenen IDs im Cache
+ */
+@ConfigurationProperties(prefix = "app.negative-lookup")
+public record NegativeLookupProps(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("100000")
+    int expectedEmails,
+
+    @DefaultValue("0.01")
+    double falsePositiveRate,
+
+    @DefaultValue("2s")
+    Duration missingIdTtl,
+
+    @DefaultValue("10000")
+    int maxMissingIds) {
+}
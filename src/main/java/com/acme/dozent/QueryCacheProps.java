@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Spring-Konfiguration für Properties "app.query-cache.*".
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param enabled true, falls die Resultate von Suchen mit Suchkriterien und von Namen-Präfixen gecacht werden
+ * @param maxEntries Maximale Anzahl gecachter Suchen
+ * @param maxResultSize Maximale Anzahl an IDs bzw. Namen je Eintrag; größere Resultate werden nicht gecacht
+ * @param ttl Maximale Dauer eines Eintrags, z.B. bei Änderungen direkt in der DB
+ */
+@ConfigurationProperties(prefix = "app.query-cache")
+public record QueryCacheProps(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("1000")
+    int maxEntries,
+
+    @DefaultValue("500")
+    int maxResultSize,
+
+    @DefaultValue("5m")
+    Duration ttl) {
+}
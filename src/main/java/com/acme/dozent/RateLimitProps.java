@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Spring-Konfiguration für Properties "app.rate-limit.*". Die Limits gelten je Benutzer bzw. IP-Adresse und je
+ * Routenklasse; innerhalb einer Minute kann das Limit auch als Burst ausgeschöpft werden.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param enabled true, falls die Anzahl der Requests begrenzt wird
+ * @param searchPerMinute Requests pro Minute für Suchen, z.B. GET /rest?name=..., POST /rest/lookup und GraphQL
+ * @param byIdPerMinute Requests pro Minute für GET /rest/{id}
+ * @param writePerMinute Requests pro Minute für POST, PUT, PATCH und DELETE unter /rest
+ * @param loginPerMinute Requests pro Minute für POST /auth/login
+ * @param idleTimeout Dauer ohne Requests, nach der ein Bucket entfernt wird
+ * @param maxClients Maximale Anzahl an Buckets
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public record RateLimitProps(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("120")
+    int searchPerMinute,
+
+    @DefaultValue("600")
+    int byIdPerMinute,
+
+    @DefaultValue("60")
+    int writePerMinute,
+
+    @DefaultValue("10")
+    int loginPerMinute,
+
+    @DefaultValue("10m")
+    Duration idleTimeout,
+
+    @DefaultValue("100000")
+    int maxClients) {
+}
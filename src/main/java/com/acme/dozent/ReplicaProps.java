@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Spring-Konfiguration für Properties "app.replica.*".
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param urls JDBC-URLs der Read-Replicas; ohne URLs werden alle Transaktionen mit der primären DB ausgeführt
+ * @param username Benutzername für die Replicas; ohne Angabe wie bei der primären DB
+ * @param password Passwort für die Replicas; ohne Angabe wie bei der primären DB
+ * @param maxPoolSize Maximale Anzahl an Connections je Replica
+ * @param connectionTimeout Maximale Wartezeit auf eine Connection einer Replica
+ * @param healthCheckInterval Abstand zwischen zwei Überprüfungen, ob die Replicas erreichbar sind
+ * @param readYourWrites Zeitspanne nach einem Schreibzugriff, in der Requests mit dem Konsistenz-Token die primäre DB
+ *                       verwenden, d.h. die maximal tolerierte Verzögerung der Replikation
+ * @param tokenSecret Geheimnis für die Signatur der Konsistenz-Token mit HMAC-SHA256, für alle Pods gleich; ohne Angabe
+ *                    ein zufälliges Geheimnis, d.h. ein Token gilt nur beim selben Pod
+ */
+@ConfigurationProperties(prefix = "app.replica")
+public record ReplicaProps(
+    @DefaultValue
+    List<String> urls,
+
+    String username,
+
+    String password,
+
+    @DefaultValue("10")
+    int maxPoolSize,
+
+    @DefaultValue("2s")
+    Duration connectionTimeout,
+
+    @DefaultValue("5s")
+    Duration healthCheckInterval,
+
+    @DefaultValue("5s")
+    Duration readYourWrites,
+
+    String tokenSecret) {
+}
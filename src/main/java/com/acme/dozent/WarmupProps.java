@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Spring-Konfiguration für Properties "app.warmup.*".
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param enabled true, falls die Anwendung vor der Readiness aufgewärmt wird
+ * @param iterations Anzahl der Durchläufe durch die Suchfunktionen, damit der JIT-Compiler sie übersetzt
+ * @param namePrefix Präfix für die Suche nach Namen, zu dem es Dozenten geben sollte
+ */
+@ConfigurationProperties(prefix = "app.warmup")
+public record WarmupProps(
+    @DefaultValue("true")
+    boolean enabled,
+
+    @DefaultValue("100")
+    int iterations,
+
+    @DefaultValue("m")
+    String namePrefix) {
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.admission;
+
+import com.acme.dozent.AdmissionProps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Zulassung zu den DB-Zugriffen mit fairen Semaphoren getrennt für lesende und schreibende Zugriffe. Dadurch warten
+ * bei vielen virtuellen Threads nicht alle Requests im Hikari-Pool, sondern werden nach der maximalen Wartezeit mit
+ * dem Statuscode 503 abgewiesen. Die Service-Methoden werden durch AdmissionAspect zugelassen; Methoden mit
+ * {@link ManualAdmission} lassen mit {@link #read(Supplier)} nur die eigentliche DB-Abfrage zu. Streams, bei denen
+ * der Client das Tempo bestimmt und die deshalb eine Connection lange belegen, erhalten mit {@link #acquireStream()}
+ * eine eigene, kleine Anzahl an Zulassungen ohne Wartezeit.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+public class Admission {
+    // verschachtelte Aufrufe im selben Thread benoetigen keine weitere Zulassung
+    private static final ThreadLocal<Boolean> ADMITTED = new ThreadLocal<>();
+
+    private final AdmissionProps props;
+    private final Workload read;
+    private final Workload write;
+    private final Workload stream;
+
+    Admission(final AdmissionProps props, final MeterRegistry meterRegistry) {
+        this.props = props;
+        read = new Workload("read", props.readPermits(), meterRegistry);
+        write = new Workload("write", props.writePermits(), meterRegistry);
+        stream = new Workload("stream", props.streamPermits(), meterRegistry);
+    }
+
+    /**
+     * Eine lesende DB-Abfrage zulassen, z.B. nur die gemeinsame Abfrage von gleichzeitigen, identischen Aufrufen.
+     *
+     * @param query Die DB-Abfrage
+     * @param <T> Typ des Resultats
+     * @return Das Resultat der DB-Abfrage
+     * @throws AdmissionRejectedException Falls die maximale Wartezeit überschritten wurde
+     */
+    public <T> T read(final Supplier<T> query) {
+        final var acquired = acquire(read);
+        try {
+            return query.get();
+        } finally {
+            release(read, acquired);
+        }
+    }
+
+    /**
+     * Eine Zulassung für einen Stream belegen, die bis zum Ende des Streams gilt, z.B. bis der Client den letzten
+     * Dozenten gelesen hat. Es wird nicht gewartet, damit der Client sofort den Statuscode 503 erhält.
+     *
+     * @return Die Zulassung, die durch <code>close()</code> freigegeben wird
+     * @throws AdmissionRejectedException Falls alle Zulassungen für Streams belegt sind
+     */
+    public Permit acquireStream() {
+        if (!props.enabled()) {
+            return new Permit(null);
+        }
+        if (!stream.semaphore.tryAcquire()) {
+            stream.rejected.increment();
+            log.warn("acquireStream: abgewiesen bei {} Streams", props.streamPermits());
+            throw new AdmissionRejectedException(stream.name, props.retryAfter());
+        }
+        return new Permit(stream);
+    }
+
+    Workload getRead() {
+        return read;
+    }
+
+    Workload getWrite() {
+        return write;
+    }
+
+    // false, falls keine Zulassung belegt wurde und deshalb keine freizugeben ist
+    boolean acquire(final Workload workload) {
+        if (!props.enabled() || ADMITTED.get() != null) {
+            return false;
+        }
+
+        final var start = System.nanoTime();
+        final boolean acquired;
+        try {
+            acquired = workload.semaphore.tryAcquire(props.maxWait().toNanos(), NANOSECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AdmissionRejectedException(workload.name, props.retryAfter());
+        } finally {
+            workload.waitTime.record(System.nanoTime() - start, NANOSECONDS);
+        }
+        if (!acquired) {
+            workload.rejected.increment();
+            log.warn("acquire: {} abgewiesen nach {} ms", workload.name, props.maxWait().toMillis());
+            throw new AdmissionRejectedException(workload.name, props.retryAfter());
+        }
+
+        ADMITTED.set(Boolean.TRUE);
+        return true;
+    }
+
+    static void release(final Workload workload, final boolean acquired) {
+        if (acquired) {
+            ADMITTED.remove();
+            workload.semaphore.release();
+        }
+    }
+
+    /**
+     * Zulassung für einen Stream, die auch in einem anderen Thread freigegeben werden kann.
+     */
+    public static final class Permit implements AutoCloseable {
+        private final Workload workload;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(final Workload workload) {
+            this.workload = workload;
+        }
+
+        /**
+         * Die Zulassung höchstens einmal freigeben.
+         */
+        @Override
+        public void close() {
+            if (workload != null && released.compareAndSet(false, true)) {
+                workload.semaphore.release();
+            }
+        }
+    }
+
+    static final class Workload {
+        private final String name;
+        private final Semaphore semaphore;
+        private final Timer waitTime;
+        private final Counter rejected;
+
+        Workload(final String name, final int permits, final MeterRegistry meterRegistry) {
+            this.name = name;
+            semaphore = new Semaphore(permits, true);
+            waitTime = Timer.builder("dozent.admission.wait")
+                .description("Wartezeit auf die Zulassung zur Anwendungslogik")
+                .tag("workload", name)
+                .register(meterRegistry);
+            rejected = Counter.builder("dozent.admission.rejected")
+                .description("Abgewiesene Aufrufe wegen Überschreitung der maximalen Wartezeit")
+                .tag("workload", name)
+                .register(meterRegistry);
+            Gauge.builder(
+                    "dozent.admission.saturation",
+                    semaphore,
+                    available -> (permits - available.availablePermits()) / (double) permits
+                )
+                .description("Anteil der belegten Zulassungen")
+                .tag("workload", name)
+                .register(meterRegistry);
+            Gauge.builder("dozent.admission.queued", semaphore, Semaphore::getQueueLength)
+                .description("Anzahl der wartenden Aufrufe")
+                .tag("workload", name)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.admission;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspekt, der die gleichzeitigen Aufrufe der Service-Klassen durch {@link Admission} begrenzt. Der Aspekt umschließt
+ * die Transaktion, so dass beim Warten keine Connection belegt ist. Methoden mit {@link ManualAdmission} lassen nur
+ * ihre eigentliche DB-Abfrage zu.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Aspect
+@Component
+@Order(0)
+class AdmissionAspect {
+    private final Admission admission;
+
+    AdmissionAspect(final Admission admission) {
+        this.admission = admission;
+    }
+
+    /**
+     * Einen Aufruf von DozentReadService zulassen.
+     *
+     * @param joinPoint Der Aufruf
+     * @return Das Resultat des Aufrufs
+     * @throws Throwable Exception des Aufrufs
+     */
+    @Around("execution(public * com.acme.dozent.service.DozentReadService.*(..)) "
+        + "&& !@annotation(com.acme.dozent.admission.ManualAdmission)")
+    @SuppressWarnings("IllegalThrows")
+    public Object admitRead(final ProceedingJoinPoint joinPoint) throws Throwable {
+        return admit(joinPoint, admission.getRead());
+    }
+
+    /**
+     * Einen Aufruf von DozentWriteService zulassen.
+     *
+     * @param joinPoint Der Aufruf
+     * @return Das Resultat des Aufrufs
+     * @throws Throwable Exception des Aufrufs
+     */
+    @Around("execution(public * com.acme.dozent.service.DozentWriteService.*(..))")
+    @SuppressWarnings("IllegalThrows")
+    public Object admitWrite(final ProceedingJoinPoint joinPoint) throws Throwable {
+        return admit(joinPoint, admission.getWrite());
+    }
+
+    @SuppressWarnings("IllegalThrows")
+    private Object admit(final ProceedingJoinPoint joinPoint, final Admission.Workload workload) throws Throwable {
+        final var acquired = admission.acquire(workload);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            Admission.release(workload, acquired);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.admission;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * RuntimeException, falls ein Aufruf nicht innerhalb der maximalen Wartezeit zugelassen wurde.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+    /**
+     * Zeitspanne, nach der der Client den Request wiederholen kann.
+     */
+    private final Duration retryAfter;
+
+    @SuppressWarnings("ParameterHidesMemberVariable")
+    AdmissionRejectedException(final String workload, final Duration retryAfter) {
+        super("Keine Zulassung fuer " + workload + " innerhalb der maximalen Wartezeit");
+        this.retryAfter = retryAfter;
+    }
+}
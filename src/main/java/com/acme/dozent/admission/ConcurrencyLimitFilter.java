@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.admission;
+
+import com.acme.dozent.ConcurrencyLimitProps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import static com.acme.dozent.controller.DozentGetController.LOOKUP_PATH;
+import static com.acme.dozent.controller.DozentGetController.REST_PATH;
+import static com.acme.dozent.controller.DozentStreamController.STREAM_PATH;
+import static org.springframework.boot.autoconfigure.security.SecurityProperties.DEFAULT_FILTER_ORDER;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Servlet-Filter vor Spring Security, der die gleichzeitigen Requests an DozentGetController und
+ * DozentWriteController durch je ein {@link GradientLimit} begrenzt. Requests über dem Limit werden sofort mit dem
+ * Statuscode 503 abgewiesen, d.h. ohne JWT-Validierung, Wartezeit und DB-Zugriff.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Order(DEFAULT_FILTER_ORDER - 2)
+@Slf4j
+class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final String STREAM_URI = REST_PATH + STREAM_PATH;
+    private static final String LOOKUP_URI = REST_PATH + LOOKUP_PATH;
+
+    private final ConcurrencyLimitProps props;
+    private final Controller get;
+    private final Controller write;
+
+    ConcurrencyLimitFilter(final ConcurrencyLimitProps props, final MeterRegistry meterRegistry) {
+        this.props = props;
+        get = new Controller("get", new GradientLimit(props), meterRegistry);
+        write = new Controller("write", new GradientLimit(props), meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull final HttpServletRequest request) {
+        final var path = request.getRequestURI();
+        // Streams sind langlebig und verfaelschen die Latenz; sie werden durch Admission#acquireStream() begrenzt
+        return !props.enabled() || !path.startsWith(REST_PATH) || path.startsWith(STREAM_URI)
+            || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull final HttpServletRequest request,
+        @NonNull final HttpServletResponse response,
+        @NonNull final FilterChain filterChain
+    ) throws ServletException, IOException {
+        final var method = request.getMethod();
+        final var isGet = "GET".equals(method) || "HEAD".equals(method) || LOOKUP_URI.equals(request.getRequestURI());
+        final var controller = isGet ? get : write;
+        if (!controller.limit.tryAcquire()) {
+            controller.rejected.increment();
+            log.debug("doFilterInternal: {} abgewiesen, limit={}", controller.name, controller.limit.getLimit());
+            response.setHeader(RETRY_AFTER, String.valueOf(Math.max(props.retryAfter().toSeconds(), 1)));
+            response.setStatus(SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        final var start = System.nanoTime();
+        var released = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(controller.limit, start, response));
+                released = true;
+            }
+        } catch (final IOException | ServletException | RuntimeException ex) {
+            controller.limit.release(System.nanoTime() - start, true);
+            released = true;
+            throw ex;
+        } finally {
+            if (!released) {
+                controller.limit.release(System.nanoTime() - start, isDropped(response));
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // die asynchrone Verarbeitung wird durch ReleaseListener erfasst
+        return true;
+    }
+
+    private static boolean isDropped(final HttpServletResponse response) {
+        return response.getStatus() == SERVICE_UNAVAILABLE.value();
+    }
+
+    private static final class Controller {
+        private final String name;
+        private final GradientLimit limit;
+        private final Counter rejected;
+
+        Controller(final String name, final GradientLimit limit, final MeterRegistry meterRegistry) {
+            this.name = name;
+            this.limit = limit;
+            rejected = Counter.builder("dozent.concurrency.rejected")
+                .description("Abgewiesene Requests wegen Überschreitung des adaptiven Limits")
+                .tag("controller", name)
+                .register(meterRegistry);
+            Gauge.builder("dozent.concurrency.limit", limit, GradientLimit::getLimit)
+                .description("Aktuelles adaptives Limit für gleichzeitige Requests")
+                .tag("controller", name)
+                .register(meterRegistry);
+            Gauge.builder("dozent.concurrency.inflight", limit, GradientLimit::getInflight)
+                .description("Anzahl der gleichzeitigen Requests")
+                .tag("controller", name)
+                .register(meterRegistry);
+        }
+    }
+
+    private static final class ReleaseListener implements AsyncListener {
+        private final GradientLimit limit;
+        private final long start;
+        private final HttpServletResponse response;
+
+        ReleaseListener(final GradientLimit limit, final long start, final HttpServletResponse response) {
+            this.limit = limit;
+            this.start = start;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            limit.release(System.nanoTime() - start, isDropped(response));
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            // onComplete folgt
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            // onComplete folgt
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // keine Aktion
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.admission;
+
+import com.acme.dozent.ConcurrencyLimitProps;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptives Limit für gleichzeitige Requests nach dem Gradienten-Verfahren von Netflix "concurrency-limits": Das
+ * Verhältnis aus langfristiger und aktueller Antwortzeit ergibt den Gradienten. Steigt die aktuelle Antwortzeit, weil
+ * sich Requests z.B. im Hikari-Pool stauen, sinkt das Limit; bei gleichbleibender Antwortzeit wächst es um eine
+ * Warteschlange von etwa der Wurzel des Limits. Abgebrochene Requests, z.B. mit Statuscode 503, senken das Limit
+ * multiplikativ um 10 %.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+final class GradientLimit {
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double DRIFT = 2.0;
+
+    private final ConcurrencyLimitProps props;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+
+    GradientLimit(final ConcurrencyLimitProps props) {
+        this.props = props;
+        limit = props.initialLimit();
+        estimatedLimit = props.initialLimit();
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * Einen Request zulassen, falls das Limit nicht erreicht ist.
+     *
+     * @return true, falls der Request zugelassen wurde und später {@link #release(long, boolean)} aufgerufen wird
+     */
+    boolean tryAcquire() {
+        while (true) {
+            final var current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Einen zugelassenen Request beenden und das Limit mit seiner Antwortzeit anpassen.
+     *
+     * @param rttNanos Antwortzeit in Nanosekunden
+     * @param dropped true, falls der Request wegen Überlast abgebrochen wurde
+     */
+    void release(final long rttNanos, final boolean dropped) {
+        final var current = inflight.getAndDecrement();
+        update(rttNanos, dropped, current);
+    }
+
+    private synchronized void update(final long rttNanos, final boolean dropped, final int current) {
+        if (dropped) {
+            estimatedLimit = Math.max(props.minLimit(), estimatedLimit * BACKOFF_RATIO);
+            limit = (int) estimatedLimit;
+            return;
+        }
+
+        samples++;
+        final var window = Math.min(samples, props.longWindow());
+        longRttNanos = longRttNanos + (rttNanos - longRttNanos) / window;
+        // die langfristige Antwortzeit passt sich nach einer dauerhaften Laständerung schneller an
+        if (longRttNanos / rttNanos > DRIFT) {
+            longRttNanos *= BACKOFF_RATIO;
+        }
+
+        // nur wachsen, wenn das bisherige Limit auch ausgeschöpft wird
+        if (current < estimatedLimit / 2) {
+            return;
+        }
+
+        final var gradient = Math.max(MIN_GRADIENT, Math.min(1.0, props.tolerance() * longRttNanos / rttNanos));
+        final var queueSize = Math.sqrt(estimatedLimit);
+        final var newLimit = estimatedLimit * gradient + queueSize;
+        estimatedLimit = estimatedLimit * (1 - props.smoothing()) + newLimit * props.smoothing();
+        estimatedLimit = Math.clamp(estimatedLimit, props.minLimit(), props.maxLimit());
+        limit = (int) estimatedLimit;
+    }
+}
@@ -1,13 +1,19 @@
 package com.acme.dozent.controller;
 
+import com.acme.dozent.admission.AdmissionRejectedException;
+import com.acme.dozent.deadline.DeadlineExceededException;
 import com.acme.dozent.service.AccessForbiddenException;
 import com.acme.dozent.service.NotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 /**
  * Handler für allgemeine Exceptions.
@@ -28,4 +34,26 @@ class CommonExceptionHandler {
     void onAccessForbidden(final AccessForbiddenException ex) {
         log.debug("onAccessForbidden: {}", ex.getMessage());
     }
+
+    @ExceptionHandler
+    ResponseEntity<Void> onAdmissionRejected(final AdmissionRejectedException ex) {
+        log.debug("onAdmissionRejected: {}", ex.getMessage());
+        final var retryAfter = Math.max(ex.getRetryAfter().toSeconds(), 1);
+        return ResponseEntity.status(SERVICE_UNAVAILABLE)
+            .header(RETRY_AFTER, String.valueOf(retryAfter))
+            .build();
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    void onDeadlineExceeded(final DeadlineExceededException ex) {
+        log.debug("onDeadlineExceeded: {}", ex.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    void onQueryTimeout(final QueryTimeoutException ex) {
+        // z.B. synchrone Requests nach Ablauf der Frist
+        log.debug("onQueryTimeout: {}", ex.getMessage());
+    }
 }
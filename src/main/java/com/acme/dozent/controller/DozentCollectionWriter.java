@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inkrementelles Schreiben einer Collection von Dozenten im Format HAL, d.h. wie ein CollectionModel mit
+ * <code>_embedded.dozenten</code>, ohne die Collection vorher vollständig aufzubauen. Die einzelnen DozentModel werden
+ * mit dem ObjectMapper des Converters für HAL bzw. dessen Kopie für CBOR oder Smile serialisiert, so dass die Links
+ * wie bisher dargestellt werden.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+class DozentCollectionWriter {
+    // gemaess @Relation bei DozentModel
+    private static final String COLLECTION_RELATION = "dozenten";
+    private static final String EMBEDDED = "_embedded";
+    private static final int FLUSH_INTERVAL = 64;
+
+    private final DozentMediaTypes mediaTypes;
+
+    DozentCollectionWriter(final DozentMediaTypes mediaTypes) {
+        this.mediaTypes = mediaTypes;
+    }
+
+    /**
+     * Die Dozenten schreiben, die ein Producer liefert. Alle {@value #FLUSH_INTERVAL} Dozenten wird der Puffer
+     * geleert, so dass der Client die ersten Dozenten erhält, während weitere Dozenten noch aus der DB gelesen werden.
+     * Bricht der Producer ab, wird die Collection nicht geschlossen, damit der Client den unvollständigen Response
+     * erkennt.
+     *
+     * @param outputStream Der OutputStream für den Response-Body
+     * @param mediaType Das Format: HAL_JSON, APPLICATION_CBOR oder SMILE
+     * @param producer Der Producer, der jedes DozentModel an den übergebenen Consumer liefert
+     * @throws IOException falls nicht in den OutputStream geschrieben werden kann
+     */
+    void write(
+        final OutputStream outputStream,
+        final MediaType mediaType,
+        final Consumer<Consumer<DozentModel>> producer
+    ) throws IOException {
+        final var writer = mediaTypes.writer(mediaType);
+        try (var generator = writer.createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            final var elements = new Elements(generator, writer);
+            try {
+                producer.accept(elements);
+            } catch (final UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            elements.finish();
+        }
+    }
+
+    private static final class Elements implements Consumer<DozentModel> {
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+        private int count;
+
+        Elements(final JsonGenerator generator, final ObjectWriter writer) {
+            this.generator = generator;
+            this.writer = writer;
+        }
+
+        @Override
+        public void accept(final DozentModel model) {
+            try {
+                // erst beim 1. Dozent beginnen, damit z.B. bei NotFoundException noch nichts geschrieben ist
+                if (count == 0) {
+                    generator.writeStartObject();
+                    generator.writeObjectFieldStart(EMBEDDED);
+                    generator.writeArrayFieldStart(COLLECTION_RELATION);
+                }
+                writer.writeValue(generator, model);
+                count++;
+                if (count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        // ohne Dozenten wie ein leeres CollectionModel: {}
+        void finish() throws IOException {
+            if (count == 0) {
+                generator.writeStartObject();
+                generator.writeEndObject();
+            } else {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            log.trace("finish: {} Dozenten", count);
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.acme.dozent.controller;
 
+import com.acme.dozent.deadline.RequestDeadlines;
 import com.acme.dozent.entity.Dozent;
+import com.acme.dozent.monitoring.ServerTiming;
 import com.acme.dozent.security.JwtService;
 import com.acme.dozent.service.DozentReadService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.micrometer.observation.annotation.Observed;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.info.Info;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,20 +28,37 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.LinkRelation;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.ErrorResponseException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import static com.acme.dozent.controller.DozentGetController.REST_PATH;
+import static com.acme.dozent.controller.DozentMediaTypes.SMILE_VALUE;
+import static com.acme.dozent.controller.DozentResponseCache.GZIP_ETAG_SUFFIX;
+import static com.acme.dozent.controller.DozentWriteController.PROBLEM_PATH;
+import static com.acme.dozent.controller.ProblemType.BAD_REQUEST;
+import static org.springframework.hateoas.MediaTypes.HAL_JSON;
 import static org.springframework.hateoas.MediaTypes.HAL_JSON_VALUE;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.VARY;
 import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.ResponseEntity.ok;
 import static org.springframework.http.ResponseEntity.status;
@@ -60,14 +86,31 @@ public class DozentGetController {
      */
     public static final String NAME_PATH = "/name";
 
+    /**
+     * Pfad, um Dozenten zu mehreren IDs abzufragen.
+     */
+    public static final String LOOKUP_PATH = "/lookup";
+
+    /**
+     * Maximale Anzahl an IDs bei POST /rest/lookup.
+     */
+    public static final int LOOKUP_MAX_IDS = 100;
+
     /**
      * Muster für die Dozent-ID.
      */
     public static final String ID_PATTERN = "[\\da-f]{8}-[\\da-f]{4}-[\\da-f]{4}-[\\da-f]{4}-[\\da-f]{12}";
 
+    private static final LinkRelation UPDATE = LinkRelation.of("update");
+    private static final LinkRelation REMOVE = LinkRelation.of("remove");
+
     private final DozentReadService service;
     private final JwtService jwtService;
     private final UriHelper uriHelper;
+    private final DozentResponseCache responseCache;
+    private final RequestDeadlines deadlines;
+    private final DozentCollectionWriter collectionWriter;
+    private final DozentMediaTypes mediaTypes;
 
     /**
      * Suche anhand der Dozent-ID als Pfad-Parameter.
@@ -76,17 +119,23 @@ public class DozentGetController {
      * @param version Versionsnummer aus dem Header If-None-Match
      * @param request Das Request-Objekt, um Links für HATEOAS zu erstellen.
      * @param jwt JWT für Security
-     * @return Ein Response mit dem Statuscode 200 und die gefundene Dozent mit Atom-Links oder Statuscode 404.
+     * @return Ein Response mit dem Statuscode 200 und die gefundene Dozent mit Atom-Links als serialisierter
+     *         JSON-Datensatz ggf. mit gzip komprimiert bzw. gemäß dem Header "Accept" als CBOR oder Smile oder
+     *         Statuscode 404.
      */
-    @GetMapping(path = "{id:" + ID_PATTERN + "}", produces = HAL_JSON_VALUE)
+    @GetMapping(path = "{id:" + ID_PATTERN + "}", produces = {HAL_JSON_VALUE, APPLICATION_CBOR_VALUE, SMILE_VALUE})
     // "Distributed Tracing" durch https://micrometer.io bei Aufruf eines anderen Microservice
     @Observed(name = "get-by-id")
     @Operation(summary = "Suche mit der Dozent-ID", tags = "Suchen")
-    @ApiResponse(responseCode = "200", description = "Dozent gefunden")
+    @ApiResponse(
+        responseCode = "200",
+        description = "Dozent gefunden",
+        content = @Content(mediaType = HAL_JSON_VALUE, schema = @Schema(implementation = DozentModel.class))
+    )
     @ApiResponse(responseCode = "404", description = "Dozent nicht gefunden")
     @SuppressWarnings("ReturnCount")
     @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
-    ResponseEntity<DozentModel> getById(
+    ResponseEntity<byte[]> getById(
         @PathVariable final UUID id,
         @RequestHeader("If-None-Match") final Optional<String> version,
         final HttpServletRequest request,
@@ -106,26 +155,59 @@ public class DozentGetController {
         log.trace("getById: {}", dozent);
 
         final var currentVersion = "\"" + dozent.getVersion() + '"';
-        if (Objects.equals(version.orElse(null), currentVersion)) {
+        // die mit gzip komprimierte Variante hat ein eigenes starkes ETag
+        final var gzipVersion = "\"" + dozent.getVersion() + GZIP_ETAG_SUFFIX + '"';
+        final var requestedVersion = version.orElse(null);
+        if (Objects.equals(requestedVersion, currentVersion) || Objects.equals(requestedVersion, gzipVersion)) {
             return status(NOT_MODIFIED).build();
         }
 
-        final var model = dozentToModel(dozent, request);
-        log.debug("getById: model={}", model);
-        return ok().eTag(currentVersion).body(model);
+        final var baseUri = uriHelper.getBase(request);
+        final var mediaType = DozentMediaTypes.select(request.getHeader(ACCEPT));
+        if (!HAL_JSON.equals(mediaType)) {
+            // CBOR bzw. Smile fuer andere Microservices: nicht gecacht und nicht komprimiert
+            log.debug("getById: {}", mediaType);
+            final var body = encodeBinary(dozentToModel(dozent, baseUri), mediaType);
+            return ok().eTag(currentVersion).contentType(mediaType).header(VARY, ACCEPT, ACCEPT_ENCODING).body(body);
+        }
+
+        // serialisierter JSON-Datensatz aus dem Cache: kein DozentModel, keine Links und kein Jackson bei einem Treffer
+        // komprimiert wird nur fuer Clients, die gzip akzeptieren
+        final var gzip = DozentResponseCache.acceptsGzip(request.getHeader(ACCEPT_ENCODING));
+        final var encoded = responseCache.get(
+            dozent,
+            baseUri.value(),
+            gzip,
+            gefunden -> dozentToModel(gefunden, baseUri)
+        );
+        final var response = ok()
+            .contentType(HAL_JSON)
+            .header(VARY, ACCEPT, ACCEPT_ENCODING);
+        if (gzip) {
+            log.debug("getById: gzip");
+            return response.eTag(gzipVersion).header(CONTENT_ENCODING, "gzip").body(encoded.gzip());
+        }
+        return response.eTag(currentVersion).body(encoded.identity());
+    }
+
+    private byte[] encodeBinary(final DozentModel model, final MediaType mediaType) {
+        ServerTiming.serializing();
+        try {
+            return mediaTypes.writer(mediaType).writeValueAsBytes(model);
+        } catch (final JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 
-    private DozentModel dozentToModel(final Dozent dozent, final HttpServletRequest request) {
+    private DozentModel dozentToModel(final Dozent dozent, final UriHelper.BaseUri baseUri) {
         final var model = new DozentModel(dozent);
-        final var baseUri = uriHelper.getBaseUri(request).toString();
-        final var idUri = baseUri + '/' + dozent.getId();
+        final var idUri = baseUri.idUri(dozent.getId());
 
         final var selfLink = Link.of(idUri);
-        final var listLink = Link.of(baseUri, LinkRelation.of("list"));
-        final var addLink = Link.of(baseUri, LinkRelation.of("add"));
-        final var updateLink = Link.of(idUri, LinkRelation.of("update"));
-        final var removeLink = Link.of(idUri, LinkRelation.of("remove"));
-        model.add(selfLink, listLink, addLink, updateLink, removeLink);
+        final var updateLink = Link.of(idUri, UPDATE);
+        final var removeLink = Link.of(idUri, REMOVE);
+        // "list" und "add" sind je Basis-URI unveraenderlich
+        model.add(selfLink, baseUri.listLink(), baseUri.addLink(), updateLink, removeLink);
         return model;
     }
 
@@ -134,29 +216,94 @@ public class DozentGetController {
      *
      * @param suchkriterien Query-Parameter als Map.
      * @param request Das Request-Objekt, um Links für HATEOAS zu erstellen.
-     * @return Ein Response mit dem Statuscode 200, die gefundene dozent als CollectionModel oder Statuscode 404.
+     * @return Ein Response mit dem Statuscode 200, die gefundene dozent als CollectionModel gemäß dem Header "Accept"
+     *         als HAL, CBOR oder Smile oder Statuscode 404. Die Dozenten werden geschrieben, während sie aus der DB
+     *         gelesen werden; nach Ablauf der Frist wird die laufende SQL-Anweisung abgebrochen und ggf. der
+     *         Statuscode 503 geliefert.
      */
-    @GetMapping(produces = HAL_JSON_VALUE)
+    @GetMapping(produces = {HAL_JSON_VALUE, APPLICATION_CBOR_VALUE, SMILE_VALUE})
     @Operation(summary = "Suche mit Suchkriterien", tags = "Suchen")
-    @ApiResponse(responseCode = "200", description = "CollectionModel mid den Dozenten")
+    @ApiResponse(
+        responseCode = "200",
+        description = "CollectionModel mid den Dozenten",
+        content = @Content(mediaType = HAL_JSON_VALUE, schema = @Schema(implementation = CollectionModel.class))
+    )
     @ApiResponse(responseCode = "404", description = "Keine Dozenten gefunden")
-    CollectionModel<DozentModel> get(
+    @ApiResponse(responseCode = "503", description = "Frist abgelaufen")
+    ResponseEntity<StreamingResponseBody> get(
         @RequestParam @NonNull final MultiValueMap<String, String> suchkriterien,
         final HttpServletRequest request
     ) {
         log.debug("get: suchkriterien={}", suchkriterien);
 
-        final var baseUri = uriHelper.getBaseUri(request).toString();
-        final var models = service.find(suchkriterien)
-            .stream()
+        // im Request-Thread, weil der Request im Worker-Thread nicht mehr verwendet werden darf
+        final var baseUri = uriHelper.getBase(request);
+        final var mediaType = DozentMediaTypes.select(request.getHeader(ACCEPT));
+        final StreamingResponseBody body = outputStream -> collectionWriter.write(
+            outputStream,
+            mediaType,
+            models -> service.forEach(suchkriterien, dozent -> {
+                final var model = new DozentModel(dozent);
+                model.add(Link.of(baseUri.idUri(dozent.getId())));
+                models.accept(model);
+            })
+        );
+        return ok().contentType(mediaType).header(VARY, ACCEPT).body(deadlines.stream(body));
+    }
+
+    /**
+     * Suche mit mehreren Dozent-IDs durch eine einzige SQL-Anweisung, z.B. für einen Kurskatalog.
+     *
+     * @param ids Die IDs als JSON-Array im Request-Body
+     * @param request Das Request-Objekt, um Links für HATEOAS zu erstellen.
+     * @param jwt JWT für Security
+     * @return Ein Response mit dem Statuscode 200, den gefundenen Dozenten in der Reihenfolge der IDs und den IDs ohne
+     *         Dozent, Statuscode 403 für fremde IDs ohne die Rolle ADMIN oder Statuscode 422 bei zu vielen IDs.
+     */
+    @PostMapping(path = LOOKUP_PATH, consumes = APPLICATION_JSON_VALUE, produces = HAL_JSON_VALUE)
+    @Observed(name = "lookup")
+    @Operation(summary = "Suche mit mehreren Dozent-IDs", tags = "Suchen")
+    @ApiResponse(responseCode = "200", description = "CollectionModel mit den Dozenten und den fehlenden IDs")
+    @ApiResponse(responseCode = "403", description = "Fremde Dozent-IDs ohne die Rolle ADMIN")
+    @ApiResponse(responseCode = "422", description = "Zu viele Dozent-IDs")
+    ResponseEntity<DozentLookupModel> lookup(
+        @RequestBody final List<UUID> ids,
+        final HttpServletRequest request,
+        @AuthenticationPrincipal final Jwt jwt
+    ) {
+        final var username = jwtService.getUsername(jwt);
+        log.debug("lookup: ids={}, username={}", ids, username);
+        if (username == null) {
+            log.error("Trotz Spring Security wurde lookup() ohne Benutzername im JWT aufgerufen");
+            return status(UNAUTHORIZED).build();
+        }
+        if (ids.size() > LOOKUP_MAX_IDS) {
+            final var problemDetail = ProblemDetail.forStatusAndDetail(
+                UNPROCESSABLE_ENTITY,
+                "Maximal " + LOOKUP_MAX_IDS + " IDs statt " + ids.size()
+            );
+            problemDetail.setType(URI.create(PROBLEM_PATH + BAD_REQUEST.getValue()));
+            problemDetail.setInstance(URI.create(request.getRequestURL().toString()));
+            throw new ErrorResponseException(UNPROCESSABLE_ENTITY, problemDetail, null);
+        }
+
+        final var dozenten = service.findByIds(ids, username, jwtService.getRollen(jwt));
+        final var baseUri = uriHelper.getBase(request);
+        final var gefundeneIds = new HashSet<UUID>(dozenten.size());
+        final var models = dozenten.stream()
             .map(dozent -> {
+                gefundeneIds.add(dozent.getId());
                 final var model = new DozentModel(dozent);
-                model.add(Link.of(baseUri + '/' + dozent.getId()));
+                model.add(Link.of(baseUri.idUri(dozent.getId())));
                 return model;
             })
             .toList();
-        log.debug("get: {}", models);
-        return CollectionModel.of(models);
+        final var fehlendeIds = new LinkedHashSet<>(ids)
+            .stream()
+            .filter(id -> !gefundeneIds.contains(id))
+            .toList();
+        log.debug("lookup: {} gefunden, fehlendeIds={}", models.size(), fehlendeIds);
+        return ok(new DozentLookupModel(models, fehlendeIds));
     }
 
     /**
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.controller;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.hateoas.CollectionModel;
+
+/**
+ * Model-Klasse für Spring HATEOAS bei der Suche mit mehreren IDs: die gefundenen Dozenten unter
+ * <code>_embedded.dozenten</code> in der Reihenfolge der IDs und zusätzlich die IDs ohne Dozent.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@EqualsAndHashCode(callSuper = true)
+@Getter
+@ToString(callSuper = true)
+class DozentLookupModel extends CollectionModel<DozentModel> {
+    private final List<UUID> fehlendeIds;
+
+    DozentLookupModel(final List<DozentModel> dozenten, final List<UUID> fehlendeIds) {
+        super(dozenten, List.of(), null);
+        this.fehlendeIds = fehlendeIds;
+    }
+}
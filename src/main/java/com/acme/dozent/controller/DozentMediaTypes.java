@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
+import static com.fasterxml.jackson.databind.SerializationFeature.INDENT_OUTPUT;
+import static org.springframework.hateoas.MediaTypes.HAL_JSON;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+
+/**
+ * Formate für DozentModel bei GET-Requests: HAL als JSON und für andere Microservices dieselbe Struktur binär als CBOR
+ * oder Smile, d.h. ohne das Parsen von Text auf beiden Seiten. Die ObjectMapper für CBOR und Smile sind Kopien des
+ * ObjectMapper für HAL, so dass Module, Links und Konfiguration übereinstimmen.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+class DozentMediaTypes {
+    /**
+     * MIME-Type für Smile als String.
+     */
+    static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * MIME-Type für Smile.
+     */
+    static final MediaType SMILE = MediaType.parseMediaType(SMILE_VALUE);
+
+    private static final List<MediaType> BINARY = List.of(APPLICATION_CBOR, SMILE);
+
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+    private final Map<MediaType, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    DozentMediaTypes(final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    /**
+     * Das Format gemäß dem Header "Accept" auswählen. CBOR oder Smile werden nur ausgewählt, wenn sie explizit mit der
+     * höchsten Qualität angefordert werden, ansonsten HAL. Ein syntaktisch ungültiger Header wird wie ein fehlender
+     * Header behandelt.
+     *
+     * @param accept Header "Accept" oder null
+     * @return HAL_JSON, APPLICATION_CBOR oder SMILE
+     */
+    static MediaType select(@Nullable final String accept) {
+        if (accept == null) {
+            return HAL_JSON;
+        }
+        final List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (final InvalidMediaTypeException ex) {
+            log.debug("select: ungueltiger Header Accept {}", accept);
+            return HAL_JSON;
+        }
+        var selected = HAL_JSON;
+        var selectedQuality = -1.0;
+        for (final var mediaType : mediaTypes) {
+            final var quality = mediaType.getQualityValue();
+            if (quality <= selectedQuality) {
+                continue;
+            }
+            final var binary = BINARY.stream().filter(mediaType::equalsTypeAndSubtype).findFirst();
+            if (binary.isPresent()) {
+                selected = binary.get();
+                selectedQuality = quality;
+            } else if (mediaType.isCompatibleWith(HAL_JSON)) {
+                selected = HAL_JSON;
+                selectedQuality = quality;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Den ObjectWriter für DozentModel im gegebenen Format ermitteln. Der Puffer wird nicht nach jedem Wert geleert.
+     *
+     * @param mediaType HAL_JSON, APPLICATION_CBOR oder SMILE
+     * @return Der ObjectWriter für DozentModel
+     */
+    ObjectWriter writer(final MediaType mediaType) {
+        return writers.computeIfAbsent(mediaType, this::createWriter);
+    }
+
+    /**
+     * Den ObjectMapper für das gegebene Format ermitteln, z.B. um in Tests mit denselben Einstellungen zu
+     * deserialisieren. Für CBOR und Smile wird bei jedem Aufruf eine neue Kopie erstellt.
+     *
+     * @param mediaType HAL_JSON, APPLICATION_CBOR oder SMILE
+     * @return Der ObjectMapper für das Format
+     */
+    ObjectMapper mapper(final MediaType mediaType) {
+        final var halMapper = halMapper();
+        if (HAL_JSON.equals(mediaType)) {
+            return halMapper;
+        }
+        return APPLICATION_CBOR.equals(mediaType)
+            ? halMapper.copyWith(new CBORFactory())
+            : halMapper.copyWith(new SmileFactory());
+    }
+
+    private ObjectWriter createWriter(final MediaType mediaType) {
+        log.debug("createWriter: {}", mediaType);
+        final var writer = mapper(mediaType).writerFor(DozentModel.class).without(FLUSH_AFTER_WRITE_VALUE);
+        return HAL_JSON.equals(mediaType) ? writer : writer.without(INDENT_OUTPUT);
+    }
+
+    private ObjectMapper halMapper() {
+        return handlerAdapter.getObject()
+            .getMessageConverters()
+            .stream()
+            .filter(converter -> converter instanceof AbstractJackson2HttpMessageConverter)
+            .filter(converter -> converter.canWrite(DozentModel.class, HAL_JSON))
+            .map(converter -> ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper())
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Kein ObjectMapper für " + HAL_JSON));
+    }
+}
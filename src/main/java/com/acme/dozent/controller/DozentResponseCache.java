@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.controller;
+
+import com.acme.dozent.ResponseCacheProps;
+import com.acme.dozent.entity.Dozent;
+import com.acme.dozent.monitoring.ServerTiming;
+import com.acme.dozent.service.DozentGeaendertEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import static org.springframework.hateoas.MediaTypes.HAL_JSON;
+
+/**
+ * Cache für die serialisierten Responses bei GET-Requests mit einer Dozent-ID. Der Schlüssel ist die ID; je ID gibt
+ * es eine kleine Map mit Version und Basis-URI als Schlüssel, so dass eine veraltete Version nie ausgeliefert wird und
+ * ein geänderter Dozent in konstanter Zeit entfernt wird. Der JSON-Datensatz wird erst dann mit gzip komprimiert,
+ * wenn ihn ein Client mit gzip anfordert.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+class DozentResponseCache {
+    /**
+     * Suffix für das ETag der mit gzip komprimierten Variante, damit beide Varianten unterschiedliche starke ETags
+     * haben.
+     */
+    static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private static final String GZIP = "gzip";
+    private static final Pattern Q_ZERO = Pattern.compile("q=0(\\.0*)?");
+    private static final int INITIAL_BUFFER_SIZE = 2048;
+
+    private final ResponseCacheProps props;
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+    private final Cache<UUID, Entry> cache;
+    private volatile HttpMessageConverter<Object> converter;
+
+    DozentResponseCache(
+        final ResponseCacheProps props,
+        final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter,
+        final MeterRegistry meterRegistry
+    ) {
+        this.props = props;
+        this.handlerAdapter = handlerAdapter;
+        cache = Caffeine.newBuilder()
+            .maximumWeight(props.maxSize().toBytes())
+            .weigher((final UUID id, final Entry entry) -> entry.size())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "dozent.response");
+    }
+
+    /**
+     * Den serialisierten Response zu einem Dozenten aus dem Cache holen bzw. erzeugen und cachen.
+     *
+     * @param dozent Der gefundene Dozent
+     * @param baseUri Die Basis-URI für die Links
+     * @param gzip true, falls der Client gzip akzeptiert und die komprimierte Variante benötigt wird
+     * @param toModel Funktion, um das Model mit den Links für HATEOAS zu erstellen
+     * @return Der serialisierte Response unkomprimiert und ggf. mit gzip komprimiert
+     */
+    Encoded get(
+        final Dozent dozent,
+        final String baseUri,
+        final boolean gzip,
+        final Function<Dozent, DozentModel> toModel
+    ) {
+        if (!props.enabled()) {
+            final var encoded = encode(toModel.apply(dozent));
+            return gzip ? encoded.withGzip() : encoded;
+        }
+
+        final var id = dozent.getId();
+        final var variant = new Variant(dozent.getVersion(), baseUri);
+        final var entry = cache.getIfPresent(id);
+        final var cached = entry == null ? null : entry.variants().get(variant);
+        if (cached != null && (!gzip || cached.gzip() != null)) {
+            return cached;
+        }
+
+        final var encoded = cached == null ? encode(toModel.apply(dozent)) : cached;
+        final var result = gzip ? encoded.withGzip() : encoded;
+        // neuer Eintrag statt Aenderung, damit Caffeine das Gewicht neu berechnet
+        cache.asMap().merge(id, Entry.of(variant, result), (alt, neu) -> alt.with(variant, result));
+        return result;
+    }
+
+    /**
+     * Die gecachten Responses zu einem geänderten Dozenten entfernen.
+     *
+     * @param event Event mit der ID des geänderten Dozenten
+     */
+    @EventListener
+    void onDozentGeaendert(final DozentGeaendertEvent event) {
+        log.trace("onDozentGeaendert: id={}", event.id());
+        cache.invalidate(event.id());
+    }
+
+    /**
+     * Abfrage, ob der Client gzip akzeptiert.
+     *
+     * @param acceptEncoding Header "Accept-Encoding" oder null
+     * @return true, falls gzip akzeptiert wird
+     */
+    static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (final var token : acceptEncoding.split(",")) {
+            final var parts = token.trim().toLowerCase(Locale.ROOT).split(";");
+            final var rejected = parts.length > 1 && Q_ZERO.matcher(parts[1].replace(" ", "")).matches();
+            if (GZIP.equals(parts[0].trim()) && !rejected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Einen Response mit dem Converter für HAL serialisieren, ohne ihn zu cachen und ohne ihn zu komprimieren.
+     *
+     * @param body Z.B. ein DozentModel oder ein CollectionModel
+     * @return Der serialisierte Response unkomprimiert
+     */
+    Encoded encode(final Object body) {
+        ServerTiming.serializing();
+        final var message = new BufferedOutputMessage();
+        try {
+            converter().write(body, HAL_JSON, message);
+            return new Encoded(message.body.toByteArray(), null);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpMessageConverter<Object> converter() {
+        var result = converter;
+        if (result == null) {
+            result = (HttpMessageConverter<Object>) handlerAdapter.getObject()
+                .getMessageConverters()
+                .stream()
+                .filter(messageConverter -> messageConverter.canWrite(DozentModel.class, HAL_JSON))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Kein HttpMessageConverter für " + HAL_JSON));
+            converter = result;
+        }
+        return result;
+    }
+
+    private record Variant(int version, String baseUri) {
+    }
+
+    // unveraenderlich: Aenderungen erzeugen einen neuen Eintrag; nur die neueste Version wird behalten
+    private record Entry(Map<Variant, Encoded> variants, int size) {
+        static Entry of(final Variant variant, final Encoded encoded) {
+            return new Entry(Map.of(variant, encoded), encoded.size());
+        }
+
+        Entry with(final Variant variant, final Encoded encoded) {
+            final var variants = new HashMap<Variant, Encoded>(this.variants.size() + 1);
+            for (final var cached : this.variants.entrySet()) {
+                final var version = cached.getKey().version();
+                if (version > variant.version()) {
+                    // veralteter Dozent, z.B. durch einen parallelen Request vor dem Update
+                    return this;
+                }
+                if (version == variant.version()) {
+                    variants.put(cached.getKey(), cached.getValue());
+                }
+            }
+            variants.put(variant, encoded);
+            final var size = variants.values().stream().mapToInt(Encoded::size).sum();
+            return new Entry(Map.copyOf(variants), size);
+        }
+    }
+
+    /**
+     * Serialisierter Response.
+     *
+     * @param identity Der unkomprimierte JSON-Datensatz
+     * @param gzip Der mit gzip komprimierte JSON-Datensatz oder null, falls er noch nicht benötigt wurde
+     */
+    record Encoded(byte[] identity, @Nullable byte[] gzip) {
+        int size() {
+            return identity.length + (gzip == null ? 0 : gzip.length);
+        }
+
+        Encoded withGzip() {
+            if (gzip != null) {
+                return this;
+            }
+            final var gzipBuffer = new ByteArrayOutputStream(identity.length / 2 + 1);
+            try (var gzipStream = new GZIPOutputStream(gzipBuffer)) {
+                gzipStream.write(identity);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return new Encoded(identity, gzipBuffer.toByteArray());
+        }
+    }
+
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+
+        @Override
+        @NonNull
+        public ByteArrayOutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        @NonNull
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
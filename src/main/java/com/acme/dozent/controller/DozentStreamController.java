@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.controller;
+
+import com.acme.dozent.admission.Admission;
+import com.acme.dozent.entity.Dozent;
+import com.acme.dozent.repository.DozentReactiveRepository;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import static com.acme.dozent.controller.DozentGetController.REST_PATH;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+/**
+ * Controller für <code>GET /rest/stream</code>, der Dozenten als NDJSON-Stream ausliefert. Die Datensätze werden mit
+ * R2DBC gelesen; Spring MVC schreibt jeden Dozenten als eigene Zeile und steuert mit der Nachfrage beim Schreiben das
+ * Lesen aus der DB (Backpressure). Gleichzeitige Streams sind durch {@link Admission#acquireStream()} begrenzt.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@RestController
+@RequestMapping(REST_PATH)
+@RequiredArgsConstructor
+@Slf4j
+public class DozentStreamController {
+    /**
+     * Pfad für den Stream relativ zu REST_PATH.
+     */
+    public static final String STREAM_PATH = "/stream";
+
+    private final DozentReactiveRepository repo;
+    private final Admission admission;
+
+    /**
+     * Dozenten als Stream ausliefern, ggf. gefiltert nach dem (Teil-) Namen.
+     *
+     * @param name Optionaler (Teil-) Name der gesuchten Dozenten
+     * @return Die Dozenten als Flux, der als NDJSON geschrieben wird
+     */
+    @GetMapping(path = STREAM_PATH, produces = APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Dozenten als NDJSON-Stream", tags = "Suchen")
+    @ApiResponse(responseCode = "200", description = "Stream mit den Dozenten")
+    @ApiResponse(responseCode = "503", description = "Zu viele gleichzeitige Streams")
+    Flux<DozentDTO> stream(@RequestParam final Optional<String> name) {
+        log.debug("stream: name={}", name);
+        // Permit im Request-Thread, damit ein abgewiesener Stream sofort mit 503 endet
+        final var permit = admission.acquireStream();
+        return name.map(repo::findByName)
+            .orElseGet(repo::findAll)
+            .map(DozentStreamController::toDTO)
+            .doFinally(_ -> permit.close());
+    }
+
+    private static DozentDTO toDTO(final Dozent dozent) {
+        final var adresse = dozent.getAdresse();
+        return DozentDTO.builder()
+            .name(dozent.getName())
+            .email(dozent.getEmail())
+            .geburtsdatum(dozent.getGeburtsdatum())
+            .homepage(dozent.getHomepage())
+            .adresse(new AdresseDTO(adresse.getPlz(), adresse.getOrt()))
+            .build();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.controller;
+
+import com.acme.dozent.WarmupProps;
+import com.acme.dozent.entity.Dozent;
+import com.acme.dozent.service.DozentReadService;
+import com.acme.dozent.service.NotFoundException;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.hateoas.Link;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import static com.acme.dozent.controller.DozentGetController.REST_PATH;
+import static com.acme.dozent.security.Rolle.ADMIN;
+import static org.springframework.hateoas.MediaTypes.HAL_JSON;
+
+/**
+ * Warm-up nach dem Start und vor der Readiness: Spring Boot setzt die Readiness erst nach allen ApplicationRunner auf
+ * ACCEPTING_TRAFFIC, d.h. Kubernetes leitet erst danach Requests weiter. Die Controller werden durch
+ * DozentWarmupConfig trotz "lazy initialization" erzeugt. Beim Warm-up wird der Hikari-Pool gefüllt und die
+ * Suchfunktionen werden wie von DozentGetController aufgerufen und serialisiert, d.h. nur lesend, damit Hibernate die
+ * Queries übersetzt, Jackson die Serializer erstellt und der JIT-Compiler die Methoden übersetzt.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+@SuppressWarnings("ClassFanOutComplexity")
+class DozentWarmup implements ApplicationRunner {
+    private static final String WARMUP_URI = "https://localhost" + REST_PATH + '/';
+
+    private final WarmupProps props;
+    private final DozentReadService service;
+    private final DozentResponseCache responseCache;
+    private final DozentCollectionWriter collectionWriter;
+    private final DataSource dataSource;
+
+    DozentWarmup(
+        final WarmupProps props,
+        final DozentReadService service,
+        final DozentResponseCache responseCache,
+        final DozentCollectionWriter collectionWriter,
+        final DataSource dataSource
+    ) {
+        this.props = props;
+        this.service = service;
+        this.responseCache = responseCache;
+        this.collectionWriter = collectionWriter;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void run(@NonNull final ApplicationArguments args) {
+        if (!props.enabled()) {
+            return;
+        }
+        final var start = System.nanoTime();
+        fillPool();
+        try {
+            for (var i = 0; i < props.iterations(); i++) {
+                findAndSerialize();
+            }
+        } catch (final NotFoundException ex) {
+            log.warn("run: Kein Dozent zum Praefix {} fuer das Warm-up", props.namePrefix());
+        } catch (final RuntimeException ex) {
+            // ohne Warm-up starten statt abbrechen
+            log.warn("run: Warm-up abgebrochen", ex);
+        }
+        final var millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("run: Warm-up mit {} Durchlaeufen in {} ms", props.iterations(), millis);
+    }
+
+    private void fillPool() {
+        final HikariDataSource hikari;
+        try {
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (final SQLException ex) {
+            log.debug("fillPool: kein Hikari-Pool");
+            return;
+        }
+        // minimumIdle Connections gleichzeitig anfordern, statt auf das Auffuellen im Hintergrund zu warten
+        final List<Connection> connections = new ArrayList<>(hikari.getMinimumIdle());
+        try {
+            for (var i = 0; i < hikari.getMinimumIdle(); i++) {
+                connections.add(hikari.getConnection());
+            }
+        } catch (final SQLException ex) {
+            log.warn("fillPool: {}", ex.getMessage());
+        } finally {
+            connections.forEach(DozentWarmup::close);
+        }
+        log.debug("fillPool: {} Connections", connections.size());
+    }
+
+    private void findAndSerialize() {
+        // wie GET /rest/name/{prefix}, GET /rest?name=..., GET /rest?email=... und GET /rest/{id}
+        final var name = service.findNamenByPrefix(props.namePrefix()).getFirst();
+        final var dozenten = new ArrayList<Dozent>();
+        try {
+            collectionWriter.write(
+                OutputStream.nullOutputStream(),
+                HAL_JSON,
+                models -> service.forEach(Map.of("name", List.of(name)), dozent -> {
+                    dozenten.add(dozent);
+                    models.accept(toModel(dozent));
+                })
+            );
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        final var dozent = dozenten.getFirst();
+        service.forEach(Map.of("email", List.of(dozent.getEmail())), _ -> { });
+        final var gefunden = service.findById(dozent.getId(), "", List.of(ADMIN), false);
+
+        responseCache.encode(toModel(gefunden));
+    }
+
+    private static DozentModel toModel(final Dozent dozent) {
+        final var model = new DozentModel(dozent);
+        model.add(Link.of(WARMUP_URI + dozent.getId()));
+        return model;
+    }
+
+    private static void close(final Connection connection) {
+        try {
+            connection.close();
+        } catch (final SQLException ex) {
+            log.debug("close: {}", ex.getMessage());
+        }
+    }
+}
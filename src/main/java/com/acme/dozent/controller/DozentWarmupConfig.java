@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.controller;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Konfiguration für das Warm-up: Die Controller werden trotz "lazy initialization" beim Start erzeugt, damit der
+ * erste Request nach der Readiness nicht auf die Erzeugung wartet. Mit <code>app.warmup.enabled=false</code> bleiben
+ * sie lazy.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+public interface DozentWarmupConfig {
+    /**
+     * Bean-Definition, um die Controller von der "lazy initialization" auszunehmen, sofern das Warm-up aktiviert ist.
+     * Beim Trainingslauf für CDS ist es deaktiviert, damit die Controller weder JPA noch Flyway nachziehen.
+     *
+     * @param environment Environment mit der Property "app.warmup.enabled"
+     * @return Filter für die Controller-Klassen
+     */
+    @Bean
+    default LazyInitializationExcludeFilter dozentControllerExcludeFilter(final Environment environment) {
+        // Auswertung zur Laufzeit statt @ConditionalOnProperty, weil Spring AOT Bedingungen schon beim Build auswertet
+        final boolean enabled = environment.getProperty("app.warmup.enabled", Boolean.class, true);
+        final var controller = LazyInitializationExcludeFilter.forBeanTypes(
+            DozentGetController.class,
+            DozentWriteController.class
+        );
+        return (beanName, beanDefinition, beanType) ->
+            enabled && controller.isExcluded(beanName, beanDefinition, beanType);
+    }
+}
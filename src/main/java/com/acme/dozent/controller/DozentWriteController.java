@@ -1,6 +1,8 @@
 package com.acme.dozent.controller;
 
 import com.acme.dozent.controller.DozentDTO.OnCreate;
+import com.acme.dozent.replica.ConsistencyToken;
+import com.acme.dozent.security.JwtService;
 import com.acme.dozent.service.EmailExistsException;
 import com.acme.dozent.service.DozentWriteService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,6 +21,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -30,6 +34,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import static com.acme.dozent.controller.DozentGetController.ID_PATTERN;
 import static com.acme.dozent.controller.DozentGetController.REST_PATH;
+import static com.acme.dozent.controller.DozentResponseCache.GZIP_ETAG_SUFFIX;
 import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 import static org.springframework.http.HttpStatus.PRECONDITION_REQUIRED;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -62,37 +67,67 @@ class DozentWriteController {
     private final DozentWriteService service;
     private final DozentMapper mapper;
     private final UriHelper uriHelper;
+    private final IdempotencyStore idempotencyStore;
+    private final ConsistencyToken consistencyToken;
+    private final JwtService jwtService;
 
     /**
      * Einen neuen Dozent-Datensatz anlegen.
      *
      * @param dozentDTO Das Dozentobjekt aus dem eingegangenen Request-Body.
+     * @param idempotencyKey Optionaler Header "Idempotency-Key", damit eine Wiederholung den Dozenten nicht erneut
+     *                       anlegt
+     * @param jwt Optionaler JWT, um den Idempotency-Key auf den Benutzer zu beschränken
      * @param request Das Request-Objekt, um `Location` im Response-Header zu erstellen.
      * @return Response mit Statuscode 201 einschließlich Location-Header oder Statuscode 422 falls Constraints verletzt
      *      sind oder die Emailadresse bereits existiert oder Statuscode 400 falls syntaktische Fehler im Request-Body
-     *      vorliegen.
+     *      vorliegen oder Statuscode 409 falls ein Request mit demselben Idempotency-Key noch in Bearbeitung ist.
      */
     @PostMapping(consumes = APPLICATION_JSON_VALUE)
     @Operation(summary = "Einen neuen Dozenten anlegen", tags = "Neuanlegen")
     @ApiResponse(responseCode = "201", description = "Dozent neu angelegt")
     @ApiResponse(responseCode = "400", description = "Syntaktische Fehler im Request-Body")
+    @ApiResponse(responseCode = "409", description = "Request mit gleichem Idempotency-Key in Bearbeitung")
     @ApiResponse(responseCode = "422", description = "Ungültige Werte oder Email vorhanden")
     @SuppressWarnings("TrailingComment")
     ResponseEntity<Void> post(
         @RequestBody @Validated({Default.class, OnCreate.class}) final DozentDTO dozentDTO,
+        @RequestHeader(IdempotencyStore.HEADER) final Optional<String> idempotencyKey,
+        @AuthenticationPrincipal final Jwt jwt,
         final HttpServletRequest request
     ) throws URISyntaxException {
-        log.debug("post: dozentDTO{}", dozentDTO);
+        log.debug("post: dozentDTO{}, idempotencyKey={}", dozentDTO, idempotencyKey);
 
         if (dozentDTO.username() == null || dozentDTO.password() == null) {
             return badRequest().build();
         }
 
+        if (idempotencyKey.isEmpty() || !idempotencyStore.isEnabled()) {
+            return created(create(dozentDTO, request))
+                .header(ConsistencyToken.HEADER, consistencyToken.create())
+                .build();
+        }
+
+        // ein Idempotency-Key gilt nur fuer den eigenen Benutzer, ohne JWT fuer alle anonymen Requests
+        final var username = jwt == null ? "" : jwtService.getUsername(jwt);
+        final var result = idempotencyStore.execute(
+            username,
+            idempotencyKey.get(),
+            dozentDTO,
+            () -> create(dozentDTO, request),
+            URI.create(request.getRequestURL().toString())
+        );
+        final var response = created(result.location()).header(ConsistencyToken.HEADER, consistencyToken.create());
+        if (result.replayed()) {
+            response.header(IdempotencyStore.REPLAYED_HEADER, "true");
+        }
+        return response.build();
+    }
+
+    private URI create(final DozentDTO dozentDTO, final HttpServletRequest request) {
         final var dozentInput = mapper.toDozent(dozentDTO);
         final var dozent = service.create(dozentInput);
-        final var baseUri = uriHelper.getBaseUri(request).toString();
-        final var location = URI.create(baseUri + '/' + dozent.getId());
-        return created(location).build();
+        return URI.create(uriHelper.getBase(request).idUri(dozent.getId()));
     }
 
     /**
@@ -125,7 +160,10 @@ class DozentWriteController {
         final var dozentInput = mapper.toDozent(dozentDTO);
         final var dozent = service.update(dozentInput, id, versionInt);
         log.debug("put: {}", dozent);
-        return noContent().eTag("\"" + dozent.getVersion() + '"').build();
+        return noContent()
+            .eTag("\"" + dozent.getVersion() + '"')
+            .header(ConsistencyToken.HEADER, consistencyToken.create())
+            .build();
     }
 
     @SuppressWarnings({"MagicNumber", "RedundantSuppression"})
@@ -146,9 +184,14 @@ class DozentWriteController {
             );
         }
 
+        // ETag der mit gzip komprimierten Variante von GET /rest/{id}
+        final var value = versionStr.substring(1, versionStr.length() - 1);
+        final var versionValue = value.endsWith(GZIP_ETAG_SUFFIX)
+            ? value.substring(0, value.length() - GZIP_ETAG_SUFFIX.length())
+            : value;
         final int version;
         try {
-            version = Integer.parseInt(versionStr.substring(1, versionStr.length() - 1));
+            version = Integer.parseInt(versionValue);
         } catch (final NumberFormatException ex) {
             throw new VersionInvalidException(
                 PRECONDITION_FAILED,
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.controller;
+
+import java.net.URI;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+import static com.acme.dozent.controller.DozentWriteController.PROBLEM_PATH;
+import static com.acme.dozent.controller.ProblemType.IDEMPOTENCY;
+
+/**
+ * Exception, falls der Header "Idempotency-Key" ungültig ist, mit einem anderen Request-Body wiederverwendet wird oder
+ * ein Request mit demselben Key noch in Bearbeitung ist.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+class IdempotencyKeyException extends ErrorResponseException {
+    IdempotencyKeyException(final HttpStatusCode status, final String message, final URI uri) {
+        super(status, asProblemDetail(status, message, uri), null);
+    }
+
+    private static ProblemDetail asProblemDetail(final HttpStatusCode status, final String detail, final URI uri) {
+        final var problemDetail = ProblemDetail.forStatusAndDetail(status, detail);
+        problemDetail.setType(URI.create(PROBLEM_PATH + IDEMPOTENCY.getValue()));
+        problemDetail.setInstance(uri);
+        return problemDetail;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.controller;
+
+import com.acme.dozent.IdempotencyProps;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+
+/**
+ * Begrenzter Speicher für den Header "Idempotency-Key" bei POST-Requests. Zu jedem Key wird die URI aus dem Header
+ * "Location" des Response mit Statuscode 201 gespeichert, so dass eine Wiederholung den Dozenten nicht erneut anlegt.
+ * Der Key gilt nur für den jeweiligen Benutzer, und eine Wiederverwendung mit einem anderen Request-Body wird anhand
+ * des SHA-256-Hashwerts des kanonisch serialisierten Request-Body erkannt.
+ * Ein gleichzeitiger Request mit demselben Key wartet auf das Ergebnis des ersten Requests. Nur erfolgreiche
+ * Ergebnisse werden gespeichert; bei einer Exception wird der Key entfernt und die Exception auch an die wartenden
+ * Requests weitergereicht.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+class IdempotencyStore {
+    /**
+     * Name des Request-Headers.
+     */
+    static final String HEADER = "Idempotency-Key";
+
+    /**
+     * Name des Response-Headers, falls der Response aus dem Speicher stammt.
+     */
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyProps props;
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Entry> cache;
+
+    IdempotencyStore(final IdempotencyProps props, final ObjectMapper objectMapper, final MeterRegistry meterRegistry) {
+        this.props = props;
+        this.objectMapper = objectMapper;
+        cache = Caffeine.newBuilder()
+            .maximumSize(props.maxKeys())
+            .expireAfterWrite(props.ttl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "dozent.idempotency");
+    }
+
+    /**
+     * Abfrage, ob der Header "Idempotency-Key" berücksichtigt wird.
+     *
+     * @return true, falls der Header berücksichtigt wird
+     */
+    boolean isEnabled() {
+        return props.enabled();
+    }
+
+    /**
+     * Die Aktion höchstens einmal je Benutzer und Idempotency-Key ausführen.
+     *
+     * @param username Der Benutzername aus dem JWT oder ein Leerstring ohne JWT
+     * @param key Der Wert des Headers "Idempotency-Key"
+     * @param body Der Request-Body, um die Wiederverwendung mit einem anderen Body zu erkennen
+     * @param action Die Aktion, die den Dozenten anlegt und die URI für den Header "Location" liefert
+     * @param instance Die URI des Requests für ProblemDetail
+     * @return Die URI für den Header "Location" und ob sie aus dem Speicher stammt
+     * @throws IdempotencyKeyException Falls der Key ungültig ist, mit einem anderen Request-Body wiederverwendet wird
+     *                                 oder ein gleichzeitiger Request nicht rechtzeitig fertig wird
+     */
+    Result execute(
+        final String username,
+        final String key,
+        final Object body,
+        final Supplier<URI> action,
+        final URI instance
+    ) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyKeyException(BAD_REQUEST, "Ungueltiger " + HEADER, instance);
+        }
+
+        final var entry = new Entry(fingerprint(body), new CompletableFuture<>());
+        final var cacheKey = new Key(username, key);
+        final var existing = cache.asMap().putIfAbsent(cacheKey, entry);
+        if (existing == null) {
+            try {
+                final var location = action.get();
+                entry.location().complete(location);
+                return new Result(location, false);
+            } catch (final RuntimeException ex) {
+                cache.asMap().remove(cacheKey, entry);
+                entry.location().completeExceptionally(ex);
+                throw ex;
+            }
+        }
+
+        if (!MessageDigest.isEqual(existing.fingerprint(), entry.fingerprint())) {
+            throw new IdempotencyKeyException(UNPROCESSABLE_ENTITY, HEADER + " mit anderem Request-Body", instance);
+        }
+        log.debug("execute: Wiederholung mit key={}", key);
+        try {
+            return new Result(existing.location().get(props.maxWait().toMillis(), MILLISECONDS), true);
+        } catch (final TimeoutException ex) {
+            throw new IdempotencyKeyException(CONFLICT, "Request mit gleichem " + HEADER + " in Bearbeitung", instance);
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // SHA-256 statt hashCode(), damit ein anderer Request-Body praktisch nicht denselben Hashwert ergibt
+    private byte[] fingerprint(final Object body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(body));
+        } catch (final JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Ergebnis zu einem Idempotency-Key.
+     *
+     * @param location Die URI für den Header "Location"
+     * @param replayed true, falls das Ergebnis aus dem Speicher stammt
+     */
+    record Result(URI location, boolean replayed) {
+    }
+
+    private record Key(String username, String key) {
+    }
+
+    private record Entry(byte[] fingerprint, CompletableFuture<URI> location) {
+    }
+}
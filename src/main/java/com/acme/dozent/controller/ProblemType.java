@@ -21,6 +21,11 @@ enum ProblemType {
      */
     PRECONDITION("precondition"),
 
+    /**
+     * Fehler beim Header `Idempotency-Key`.
+     */
+    IDEMPOTENCY("idempotency"),
+
     /**
      * Fehler bei z.B. einer Patch-Operation.
      */
@@ -16,15 +16,21 @@
  */
 package com.acme.dozent.controller;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.servlet.http.HttpServletRequest;
 import java.net.URI;
+import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import static com.acme.dozent.controller.DozentGetController.REST_PATH;
 
 /**
  * Hilfsklasse um URIs für HATEOAS oder für URIs in ProblemDetail zu ermitteln, falls ein API-Gateway verwendet wird.
+ * Die Basis-URIs werden je Kombination aus Schema, Host, Port und den Headern X-Forwarded-* gecacht.
  *
  * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
  */
@@ -35,6 +41,13 @@ class UriHelper {
     private static final String X_FORWARDED_HOST = "x-forwarded-host";
     private static final String X_FORWARDED_PREFIX = "x-forwarded-prefix";
     private static final String DOZENT_PREFIX = "/dozent";
+    // Die Header X-Forwarded-* kommen vom Client bzw. Gateway: begrenzte Anzahl an Eintraegen mit Verdraengung, damit
+    // gefaelschte Header die Eintraege fuer echte Hosts nicht dauerhaft blockieren
+    private static final int MAX_BASE_URIS = 64;
+
+    private final Cache<Key, BaseUri> baseUris = Caffeine.newBuilder()
+        .maximumSize(MAX_BASE_URIS)
+        .build();
 
     /**
      * Basis-URI ermitteln, d.h. ohne Query-Parameter.
@@ -43,6 +56,28 @@ class UriHelper {
      * @return Die Basis-URI als String
      */
     URI getBaseUri(final HttpServletRequest request) {
+        return getBase(request).uri();
+    }
+
+    /**
+     * Basis-URI mit den vorberechneten Präfixen und Links für HATEOAS ermitteln.
+     *
+     * @param request Servlet-Request
+     * @return Die Basis-URI mit den Präfixen und Links
+     */
+    BaseUri getBase(final HttpServletRequest request) {
+        final var key = new Key(
+            request.getScheme(),
+            request.getServerName(),
+            request.getServerPort(),
+            request.getHeader(X_FORWARDED_PROTO),
+            request.getHeader(X_FORWARDED_HOST),
+            request.getHeader(X_FORWARDED_PREFIX)
+        );
+        return baseUris.get(key, _ -> BaseUri.of(computeBaseUri(request)));
+    }
+
+    private URI computeBaseUri(final HttpServletRequest request) {
         final var forwardedHost = request.getHeader(X_FORWARDED_HOST);
         if (forwardedHost != null) {
             // Forwarding durch Kubernetes Ingress Controller oder Spring Cloud Gateway
@@ -77,4 +112,46 @@ class UriHelper {
         log.debug("getBaseUriForwarded: baseUri={}", baseUri);
         return URI.create(baseUri);
     }
+
+    private record Key(
+        String scheme,
+        String host,
+        int port,
+        String forwardedProto,
+        String forwardedHost,
+        String forwardedPrefix
+    ) {
+    }
+
+    /**
+     * Basis-URI mit vorberechnetem Präfix für die Dozent-IDs und den unveränderlichen Links "list" und "add".
+     *
+     * @param uri Die Basis-URI
+     * @param value Die Basis-URI als String
+     * @param idPrefix Präfix für die URI eines Dozenten, d.h. die Basis-URI mit abschließendem "/"
+     * @param listLink Link "list"
+     * @param addLink Link "add"
+     */
+    record BaseUri(URI uri, String value, String idPrefix, Link listLink, Link addLink) {
+        static BaseUri of(final URI uri) {
+            final var value = uri.toString();
+            return new BaseUri(
+                uri,
+                value,
+                value + '/',
+                Link.of(value, LinkRelation.of("list")),
+                Link.of(value, LinkRelation.of("add"))
+            );
+        }
+
+        /**
+         * URI eines Dozenten ermitteln.
+         *
+         * @param id ID des Dozenten
+         * @return URI des Dozenten als String
+         */
+        String idUri(final UUID id) {
+            return idPrefix + id;
+        }
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.deadline;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+/**
+ * Frist für einen Request. Vor jeder SQL-Anweisung wird die verbleibende Zeit als Query-Timeout gesetzt; laufende
+ * SQL-Anweisungen werden beim Abbruch des Requests durch <code>Statement.cancel()</code> abgebrochen. Die Frist ist
+ * für den Thread gebunden, der den Request bearbeitet, bei asynchroner Verarbeitung für den jeweiligen Worker-Thread.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Slf4j
+public final class Deadline {
+    /**
+     * Request-Header mit der Frist in Millisekunden.
+     */
+    public static final String HEADER = "Request-Timeout";
+
+    /**
+     * Grund für den Abbruch: die Frist ist abgelaufen.
+     */
+    static final String TIMEOUT = "timeout";
+
+    /**
+     * Grund für den Abbruch: der Client hat die Verbindung geschlossen.
+     */
+    static final String DISCONNECT = "disconnect";
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final long expiresAt;
+    private final Set<Statement> running = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<String> abortReason = new AtomicReference<>();
+
+    Deadline(final Duration timeout) {
+        expiresAt = System.nanoTime() + timeout.toNanos();
+    }
+
+    /**
+     * Die Frist für den aktuellen Thread.
+     *
+     * @return Die Frist oder null, falls keine Frist gebunden ist
+     */
+    @Nullable
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    static void bind(final Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Die verbleibende Zeit bis zum Ablauf der Frist.
+     *
+     * @return Die verbleibende Zeit, mindestens 0
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(expiresAt - System.nanoTime(), 0));
+    }
+
+    /**
+     * Abfrage, ob der Request abgebrochen wurde oder die Frist abgelaufen ist.
+     *
+     * @return true, falls keine weiteren SQL-Anweisungen ausgeführt werden sollen
+     */
+    public boolean isAborted() {
+        if (abortReason.get() == null && System.nanoTime() >= expiresAt) {
+            abortReason.compareAndSet(null, TIMEOUT);
+        }
+        return abortReason.get() != null;
+    }
+
+    @Nullable
+    String getAbortReason() {
+        return abortReason.get();
+    }
+
+    /**
+     * Den Request abbrechen und die laufenden SQL-Anweisungen abbrechen.
+     *
+     * @param reason Grund für den Abbruch
+     */
+    void abort(final String reason) {
+        if (!abortReason.compareAndSet(null, reason)) {
+            return;
+        }
+        for (final var statement : running) {
+            try {
+                statement.cancel();
+            } catch (final SQLException ex) {
+                log.debug("abort: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vor dem Ausführen einer SQL-Anweisung die verbleibende Zeit als Query-Timeout setzen.
+     *
+     * @param statement Die auszuführende SQL-Anweisung
+     * @throws SQLException falls die Frist bereits abgelaufen ist oder das Query-Timeout nicht gesetzt werden kann
+     */
+    public void beforeExecute(final Statement statement) throws SQLException {
+        if (isAborted()) {
+            throw timeoutException(null);
+        }
+        final var seconds = (int) Math.ceil((expiresAt - System.nanoTime()) / NANOS_PER_SECOND);
+        statement.setQueryTimeout(Math.max(seconds, 1));
+        running.add(statement);
+        // Abbruch zwischen der Pruefung und dem Eintragen
+        if (abortReason.get() != null) {
+            running.remove(statement);
+            throw timeoutException(null);
+        }
+    }
+
+    /**
+     * Nach dem Ausführen einer SQL-Anweisung diese austragen und eine Exception wegen Abbruchs als
+     * {@link SQLTimeoutException} liefern, damit Hibernate und Spring sie als Timeout erkennen.
+     *
+     * @param statement Die ausgeführte SQL-Anweisung
+     * @param ex Die Exception bei der Ausführung oder null
+     * @return Die Exception für den Aufrufer oder null
+     */
+    @Nullable
+    public Throwable afterExecute(final Statement statement, @Nullable final Throwable ex) {
+        running.remove(statement);
+        if (ex instanceof SQLException sqlException && !(ex instanceof SQLTimeoutException) && isAborted()) {
+            return timeoutException(sqlException);
+        }
+        return ex;
+    }
+
+    private SQLTimeoutException timeoutException(@Nullable final SQLException cause) {
+        final var message = "SQL-Anweisung abgebrochen: " + abortReason.get();
+        return cause == null
+            ? new SQLTimeoutException(message)
+            : new SQLTimeoutException(message, cause.getSQLState(), cause.getErrorCode(), cause);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.deadline;
+
+import com.acme.dozent.DeadlineProps;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import static com.acme.dozent.controller.DozentGetController.REST_PATH;
+import static org.springframework.boot.autoconfigure.security.SecurityProperties.DEFAULT_FILTER_ORDER;
+
+/**
+ * Servlet-Filter vor Spring Security, der für jeden Request an <code>/rest</code> eine {@link Deadline} gemäß dem
+ * Header <code>Request-Timeout</code> bzw. der Konfiguration erstellt, damit auch die Validierung des JWT in die
+ * Frist eingeht.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Order(DEFAULT_FILTER_ORDER - 3)
+@RequiredArgsConstructor
+class DeadlineFilter extends OncePerRequestFilter {
+    private final DeadlineProps props;
+    private final RequestDeadlines deadlines;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull final HttpServletRequest request) {
+        return !props.enabled() || !request.getRequestURI().startsWith(REST_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull final HttpServletRequest request,
+        @NonNull final HttpServletResponse response,
+        @NonNull final FilterChain filterChain
+    ) throws ServletException, IOException {
+        final var deadline = deadlines.create(request);
+        Deadline.bind(deadline);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Deadline.clear();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new DeadlineListener(deadline));
+            } else {
+                deadlines.record(deadline);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // die asynchrone Verarbeitung wird durch DeadlineListener erfasst
+        return true;
+    }
+
+    private final class DeadlineListener implements AsyncListener {
+        private final Deadline deadline;
+
+        DeadlineListener(final Deadline deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            deadlines.record(deadline);
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            // laufende SQL-Anweisungen abbrechen; onComplete folgt
+            deadline.abort(Deadline.TIMEOUT);
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            // z.B. Verbindung durch den Client geschlossen: laufende SQL-Anweisungen abbrechen; onComplete folgt
+            deadline.abort(Deadline.DISCONNECT);
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // keine Aktion
+        }
+    }
+}
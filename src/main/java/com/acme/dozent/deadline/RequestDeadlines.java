@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.deadline;
+
+import com.acme.dozent.DeadlineProps;
+import com.acme.dozent.monitoring.RequestContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import static com.acme.dozent.deadline.Deadline.DISCONNECT;
+import static com.acme.dozent.deadline.Deadline.TIMEOUT;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Fristen für Requests erstellen und an asynchron geschriebene Responses übergeben. Jede SQL-Anweisung erhält die
+ * verbleibende Zeit als Query-Timeout. Läuft die Frist ab, während ein Response asynchron geschrieben wird, bricht ein
+ * Timer die Frist und damit die laufenden SQL-Anweisungen ab, z.B. wenn der Client langsam liest.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+public class RequestDeadlines implements AutoCloseable {
+    private final DeadlineProps props;
+    private final Map<String, Counter> aborted;
+    private final ScheduledExecutorService timer;
+
+    RequestDeadlines(final DeadlineProps props, final MeterRegistry meterRegistry) {
+        this.props = props;
+        timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("deadline-timer").factory()
+        );
+        aborted = Map.of(
+            TIMEOUT, abortedCounter(TIMEOUT, meterRegistry),
+            DISCONNECT, abortedCounter(DISCONNECT, meterRegistry)
+        );
+    }
+
+    private static Counter abortedCounter(final String reason, final MeterRegistry meterRegistry) {
+        return Counter.builder("dozent.deadline.aborted")
+            .description("Abgebrochene Requests wegen Ablauf der Frist bzw. Verbindungsabbruch")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Einen Response-Body, den Spring MVC asynchron schreibt, mit der Frist des aktuellen Requests ausführen. Die
+     * Zeitmessung für Server-Timing und die Zählung der SQL-Anweisungen werden an den Worker-Thread übergeben. Läuft
+     * die Frist während des Schreibens ab, werden die laufenden SQL-Anweisungen abgebrochen. Schließt der Client die
+     * Verbindung, wird der Request als abgebrochen erfasst.
+     *
+     * @param body Der Response-Body, z.B. eine Collection, die während des Lesens aus der DB geschrieben wird
+     * @return Der Response-Body, der die Frist und die Messwerte im Worker-Thread bindet
+     */
+    public StreamingResponseBody stream(final StreamingResponseBody body) {
+        final var deadline = Deadline.current();
+        final var context = RequestContext.capture();
+        return outputStream -> {
+            context.bind();
+            Deadline.bind(deadline);
+            final var timeout = deadline == null
+                ? null
+                : timer.schedule(() -> deadline.abort(TIMEOUT), deadline.remaining().toNanos(), NANOSECONDS);
+            try {
+                body.writeTo(outputStream);
+            } catch (final IOException ex) {
+                if (deadline != null) {
+                    deadline.abort(DISCONNECT);
+                }
+                throw ex;
+            } catch (final RuntimeException ex) {
+                if (deadline != null && deadline.isAborted()) {
+                    throw new DeadlineExceededException(deadline.getAbortReason(), ex);
+                }
+                throw ex;
+            } finally {
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                Deadline.clear();
+                RequestContext.clear();
+            }
+        };
+    }
+
+    /**
+     * Die Frist für einen Request gemäß dem Header "Request-Timeout" oder der Konfiguration erstellen.
+     *
+     * @param request Der Request
+     * @return Die Frist
+     */
+    Deadline create(final HttpServletRequest request) {
+        final var header = request.getHeader(Deadline.HEADER);
+        var timeout = props.defaultTimeout();
+        if (header != null) {
+            try {
+                timeout = Duration.ofMillis(Math.max(Long.parseLong(header.strip()), 1));
+            } catch (final NumberFormatException ex) {
+                log.debug("create: ungueltiger Header {}={}", Deadline.HEADER, header);
+            }
+        }
+        if (timeout.compareTo(props.maxTimeout()) > 0) {
+            timeout = props.maxTimeout();
+        }
+        return new Deadline(timeout);
+    }
+
+    /**
+     * Einen abgebrochenen Request in den Metriken erfassen.
+     *
+     * @param deadline Die Frist des beendeten Requests
+     */
+    void record(final Deadline deadline) {
+        final var reason = deadline.getAbortReason();
+        if (reason != null) {
+            aborted.get(reason).increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+}
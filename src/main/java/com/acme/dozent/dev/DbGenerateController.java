@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.dev;
+
+import com.acme.dozent.service.NegativeLookupCache;
+import com.acme.dozent.service.QueryResultCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import static com.acme.dozent.dev.DevConfig.DEV;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
+
+/**
+ * Eine Controller-Klasse, um beim Entwickeln synthetische Dozenten für Lasttests zu generieren. Die IDs werden aus
+ * der laufenden Nummer abgeleitet, die nach dem zuletzt generierten Dozenten fortgesetzt wird. Mit
+ * POST /dev/db_populate wird die DB ohne generierte Dozenten neu geladen.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@RestController
+@RequestMapping("/dev")
+@RequiredArgsConstructor
+@Slf4j
+@Profile(DEV)
+public class DbGenerateController {
+    private static final int MAX_ANZAHL = 10_000_000;
+
+    private final DozentGenerator generator;
+    private final QueryResultCache queryCache;
+    private final NegativeLookupCache negativeLookupCache;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maxPoolSize;
+
+    /**
+     * Synthetische Dozenten mit Adresse und Kursen bei einem POST-Request generieren.
+     *
+     * @param anzahl Anzahl der Dozenten
+     * @param seed Seed, damit die Daten reproduzierbar sind
+     * @param threads Anzahl der Threads bzw. Connections, höchstens "spring.datasource.hikari.maximum-pool-size"
+     * @return Response mit Statuscode 200 und der Anzahl der generierten Dozenten sowie der Dauer, Statuscode 400 oder
+     *         Statuscode 500 mit der Anzahl der Dozenten, die vor dem Abbruch generiert wurden
+     */
+    @PostMapping(value = "db_generate", produces = TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> dbGenerate(
+        @RequestParam(defaultValue = "10000") final int anzahl,
+        @RequestParam(defaultValue = "42") final long seed,
+        @RequestParam(defaultValue = "2") final int threads
+    ) {
+        if (anzahl < 1 || anzahl > MAX_ANZAHL || threads < 1 || threads > maxPoolSize) {
+            return ResponseEntity.badRequest()
+                .body("anzahl zwischen 1 und " + MAX_ANZAHL + ", threads zwischen 1 und " + maxPoolSize);
+        }
+        log.warn("dbGenerate: anzahl={}, seed={}, threads={}", anzahl, seed, threads);
+        final var start = System.nanoTime();
+        final int generiert;
+        try {
+            generiert = generator.generate(anzahl, seed, threads);
+        } catch (final GenerateException ex) {
+            log.error("dbGenerate: {}", ex.getMessage(), ex.getCause());
+            return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(ex.getMessage());
+        } finally {
+            // auch nach einem Abbruch sind Dozenten hinzugekommen
+            queryCache.flush();
+            negativeLookupCache.rebuild();
+        }
+        final var millis = (System.nanoTime() - start) / 1_000_000;
+        log.warn("dbGenerate: {} Dozenten in {} ms generiert", generiert, millis);
+        return ResponseEntity.ok(generiert + " Dozenten in " + millis + " ms generiert");
+    }
+}
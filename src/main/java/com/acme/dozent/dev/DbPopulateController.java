@@ -1,11 +1,16 @@
 package com.acme.dozent.dev;
 
+import com.acme.dozent.service.NegativeLookupCache;
+import com.acme.dozent.service.QueryResultCache;
+import java.util.Locale;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.flywaydb.core.Flyway;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import static com.acme.dozent.dev.DevConfig.DEV;
 import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
@@ -22,18 +27,48 @@ import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
 @Profile(DEV)
 public class DbPopulateController {
     private final Flyway flyway;
+    private final DbSnapshot snapshot;
+    private final QueryResultCache queryCache;
+    private final NegativeLookupCache negativeLookupCache;
 
     /**
      * Die (Test-) DB wird bei einem POST-Request neu geladen.
+     * <ul>
+     *     <li><code>mode=flyway</code> (Default): Schema mit Flyway löschen und neu aufbauen</li>
+     *     <li><code>mode=truncate</code>: Tabellen leeren und die Testdaten aus dem Schnappschuss nach der letzten
+     *     Migration einfügen; beim ersten Aufruf wird migriert und der Schnappschuss erstellt</li>
+     * </ul>
      *
-     * @return Response mit Statuscode 200 und Body "ok", falls keine Exception aufgetreten ist.
+     * @param mode "flyway" oder "truncate"
+     * @return Response mit Statuscode 200 und Body "ok", falls keine Exception aufgetreten ist, bzw. Statuscode 400
+     *         bei einem unbekannten Modus.
      */
     @PostMapping(value = "db_populate", produces = TEXT_PLAIN_VALUE)
-    public String dbPopulate() {
-        log.warn("Die DB wird neu geladen");
+    public ResponseEntity<String> dbPopulate(@RequestParam(defaultValue = "flyway") final String mode) {
+        log.warn("Die DB wird neu geladen: mode={}", mode);
+        final var start = System.nanoTime();
+        switch (mode.toLowerCase(Locale.ROOT)) {
+            case "flyway" -> migrate();
+            case "truncate" -> {
+                if (snapshot.exists()) {
+                    snapshot.restore();
+                } else {
+                    migrate();
+                }
+            }
+            default -> {
+                return ResponseEntity.badRequest().body("Unbekannter Modus: " + mode);
+            }
+        }
+        queryCache.flush();
+        negativeLookupCache.rebuild();
+        log.warn("Die DB wurde in {} ms neu geladen", (System.nanoTime() - start) / 1_000_000);
+        return ResponseEntity.ok("ok");
+    }
+
+    private void migrate() {
         flyway.clean();
         flyway.migrate();
-        log.warn("Die DB wurde neu geladen");
-        return "ok";
+        snapshot.take();
     }
 }
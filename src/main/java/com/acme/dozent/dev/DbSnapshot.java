@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.dev;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import static com.acme.dozent.dev.DevConfig.DEV;
+
+/**
+ * Schnappschuss der Testdaten nach der Migration durch Flyway. Beim Zurücksetzen werden die Tabellen mit einer
+ * einzigen Anweisung TRUNCATE geleert und die Testdaten mit JDBC-Batches wieder eingefügt, statt das Schema mit
+ * Flyway zu löschen und neu aufzubauen.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Profile(DEV)
+@Slf4j
+class DbSnapshot {
+    // Reihenfolge gemaess den Fremdschluesseln
+    private static final List<String> TABELLEN = List.of("login", "adresse", "dozent", "kurs");
+    private static final String TRUNCATE_SQL = "TRUNCATE TABLE " + String.join(", ", TABELLEN) + " RESTART IDENTITY";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private volatile List<Tabelle> snapshot;
+
+    DbSnapshot(final JdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Abfrage, ob es einen Schnappschuss gibt.
+     *
+     * @return true, falls es einen Schnappschuss gibt
+     */
+    boolean exists() {
+        return snapshot != null;
+    }
+
+    /**
+     * Die aktuellen Daten als Schnappschuss speichern, d.h. unmittelbar nach der Migration durch Flyway.
+     */
+    void take() {
+        snapshot = TABELLEN.stream()
+            .map(tabelle -> new Tabelle(tabelle, jdbcTemplate.queryForList("SELECT * FROM " + tabelle)))
+            .toList();
+        log.debug("take: {}", snapshot.stream().map(Tabelle::toString).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Die Tabellen leeren und die Daten aus dem Schnappschuss wieder einfügen.
+     */
+    void restore() {
+        final var tabellen = snapshot;
+        if (tabellen == null) {
+            throw new IllegalStateException("Kein Schnappschuss vorhanden");
+        }
+        transactionTemplate.executeWithoutResult(_ -> {
+            jdbcTemplate.execute(TRUNCATE_SQL);
+            tabellen.forEach(this::insert);
+        });
+    }
+
+    private void insert(final Tabelle tabelle) {
+        if (tabelle.zeilen().isEmpty()) {
+            return;
+        }
+        final var spalten = List.copyOf(tabelle.zeilen().getFirst().keySet());
+        final var sql = "INSERT INTO " + tabelle.name() + " (" + String.join(", ", spalten) + ") VALUES ("
+            + spalten.stream().map(_ -> "?").collect(Collectors.joining(", ")) + ')';
+        final var werte = tabelle.zeilen()
+            .stream()
+            .map(zeile -> spalten.stream().map(zeile::get).toArray())
+            .toList();
+        jdbcTemplate.batchUpdate(sql, werte);
+    }
+
+    private record Tabelle(String name, List<Map<String, Object>> zeilen) {
+        @Override
+        public String toString() {
+            return name + '=' + zeilen.size();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.dev;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import static com.acme.dozent.dev.DevConfig.DEV;
+
+/**
+ * Generator für synthetische Dozenten mit Adresse und Kursen, um Abfragen mit realistischen Datenmengen zu messen.
+ * Die Daten werden in Blöcken mit JDBC-Batches und mehreren Threads eingefügt. Jeder Block hat einen eigenen
+ * Zufallsgenerator, der aus Seed und Blocknummer initialisiert wird, so dass die Daten unabhängig von der Anzahl der
+ * Threads reproduzierbar sind. Namen, Orte und Postleitzahlen sind Zipf-verteilt wie in echten Daten. Die laufende
+ * Nummer für IDs und Emails beginnt nach dem zuletzt generierten Dozenten, so dass wiederholte Generierungen die
+ * vorhandenen Daten ergänzen.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Profile(DEV)
+@Slf4j
+class DozentGenerator {
+    /**
+     * Anzahl der Dozenten je Block bzw. Transaktion.
+     */
+    static final int BLOCK_SIZE = 5_000;
+
+    private static final long ADRESSE_MSB = 0x6000_0000_0000_0000L;
+    private static final long DOZENT_MSB = 0x5000_0000_0000_0000L;
+    private static final long KURS_MSB = 0x4000_0000_0000_0000L;
+    private static final int MAX_KURSE = 4;
+    private static final String USERNAME = "user";
+
+    private static final String ADRESSE_SQL = "INSERT INTO adresse (id, plz, ort) VALUES (?, ?, ?)";
+    private static final String DOZENT_SQL = """
+        INSERT INTO dozent (id, version, name, email, geburtsdatum, geschlecht, homepage, adresse_id, username)
+        VALUES (?, 0, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    private static final String KURS_SQL = """
+        INSERT INTO kurs (id, kursName, email, dozent_id, idx)
+        VALUES (?, ?, ?, ?, ?)
+        """;
+    private static final String LETZTER_DOZENT_SQL = """
+        SELECT   id
+        FROM     dozent
+        WHERE    id BETWEEN ? AND ?
+        ORDER BY id DESC
+        LIMIT    1
+        """;
+
+    // nach Haeufigkeit sortiert
+    private static final String[] NACHNAMEN = {
+        "Mueller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner", "Becker", "Schulz", "Hoffmann",
+        "Koch", "Richter", "Bauer", "Klein", "Wolf", "Schroeder", "Neumann", "Schwarz", "Braun", "Zimmermann",
+        "Hofmann", "Hartmann", "Lange", "Krueger", "Werner", "Lehmann", "Schmitz", "Krause", "Meier", "Maier",
+    };
+    private static final String[] VORNAMEN = {
+        "Michael", "Thomas", "Andreas", "Stefan", "Sabine", "Susanne", "Christian", "Petra", "Claudia", "Markus",
+        "Martin", "Birgit", "Frank", "Anna", "Julia", "Simon", "Laura", "Daniel", "Katharina", "Jan",
+    };
+    private static final String[] ORTE = {
+        "Berlin", "Hamburg", "Muenchen", "Koeln", "Frankfurt", "Stuttgart", "Duesseldorf", "Leipzig", "Dortmund",
+        "Essen", "Bremen", "Dresden", "Hannover", "Nuernberg", "Karlsruhe",
+    };
+    // Leitzahl je Ort
+    private static final String[] PLZ_PREFIXE = {
+        "10", "20", "80", "50", "60", "70", "40", "04", "44", "45", "28", "01", "30", "90", "76",
+    };
+    private static final String[] KURSE = {
+        "Programmieren", "Mathematik", "BWL", "Softwarearchitektur", "Datenbanken", "Recht", "Marketing",
+        "Statistik", "Netzwerke", "Finanzwirtschaft",
+    };
+    private static final String[] GESCHLECHTER = {"WEIBLICH", "MAENNLICH", "MAENNLICH", "WEIBLICH", "DIVERS"};
+
+    private static final double[] NACHNAMEN_VERTEILUNG = zipf(NACHNAMEN.length);
+    private static final double[] VORNAMEN_VERTEILUNG = zipf(VORNAMEN.length);
+    private static final double[] ORTE_VERTEILUNG = zipf(ORTE.length);
+    private static final LocalDate MIN_GEBURTSDATUM = LocalDate.of(1950, 1, 1);
+    private static final int GEBURTSDATUM_TAGE = 45 * 365;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    DozentGenerator(final JdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Synthetische Dozenten generieren und in die DB einfügen.
+     *
+     * @param anzahl Anzahl der Dozenten
+     * @param seed Seed für die Zufallsgeneratoren
+     * @param threads Anzahl der Threads bzw. gleichzeitig verwendeten Connections
+     * @return Anzahl der eingefügten Dozenten
+     * @throws GenerateException Falls ein Block nicht eingefügt werden konnte; die übrigen Blöcke bleiben erhalten
+     */
+    int generate(final int anzahl, final long seed, final int threads) {
+        final var offset = naechsterIndex();
+        log.debug("generate: offset={}", offset);
+        final var bloecke = (anzahl + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final var naechsterBlock = new AtomicInteger();
+        final var eingefuegt = new AtomicInteger();
+        Throwable fehler = null;
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<?>> futures = new ArrayList<>(threads);
+            for (var i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    var block = naechsterBlock.getAndIncrement();
+                    while (block < bloecke) {
+                        final var von = block * BLOCK_SIZE;
+                        final var bis = Math.min(von + BLOCK_SIZE, anzahl);
+                        try {
+                            insertBlock(block, offset + von, offset + bis, seed);
+                        } catch (final RuntimeException ex) {
+                            // keine weiteren Bloecke verteilen
+                            naechsterBlock.set(bloecke);
+                            throw ex;
+                        }
+                        eingefuegt.addAndGet(bis - von);
+                        block = naechsterBlock.getAndIncrement();
+                    }
+                }));
+            }
+            for (final var future : futures) {
+                try {
+                    future.get();
+                } catch (final ExecutionException ex) {
+                    if (fehler == null) {
+                        fehler = ex.getCause();
+                    }
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GenerateException("Generierung unterbrochen", eingefuegt.get(), ex);
+        }
+        if (fehler != null) {
+            throw new GenerateException("Generierung abgebrochen", eingefuegt.get(), fehler);
+        }
+        return eingefuegt.get();
+    }
+
+    // laufende Nummer nach dem zuletzt generierten Dozenten
+    private int naechsterIndex() {
+        final var ids = jdbcTemplate.queryForList(
+            LETZTER_DOZENT_SQL,
+            UUID.class,
+            new UUID(DOZENT_MSB, 0),
+            new UUID(DOZENT_MSB, Integer.MAX_VALUE)
+        );
+        return ids.isEmpty() ? 0 : (int) ids.getFirst().getLeastSignificantBits() + 1;
+    }
+
+    private void insertBlock(final int block, final int von, final int bis, final long seed) {
+        final var random = new SplittableRandom(seed * 31 + block);
+        final var anzahl = bis - von;
+        final List<Object[]> adressen = new ArrayList<>(anzahl);
+        final List<Object[]> dozenten = new ArrayList<>(anzahl);
+        final List<Object[]> kurse = new ArrayList<>(anzahl * MAX_KURSE / 2);
+
+        for (var index = von; index < bis; index++) {
+            final var adresseId = new UUID(ADRESSE_MSB, index);
+            final var ort = sample(random, ORTE_VERTEILUNG);
+            final var plz = PLZ_PREFIXE[ort] + String.format(Locale.ROOT, "%03d", random.nextInt(1000));
+            adressen.add(new Object[]{adresseId, plz, ORTE[ort]});
+
+            final var dozentId = new UUID(DOZENT_MSB, index);
+            final var vorname = VORNAMEN[sample(random, VORNAMEN_VERTEILUNG)];
+            final var nachname = NACHNAMEN[sample(random, NACHNAMEN_VERTEILUNG)];
+            final var geburtsdatum = MIN_GEBURTSDATUM.plusDays(random.nextInt(GEBURTSDATUM_TAGE));
+            dozenten.add(new Object[]{
+                dozentId,
+                vorname + ' ' + nachname,
+                vorname.charAt(0) + "." + nachname.toLowerCase(Locale.ROOT) + '.' + index + "@example.com",
+                Date.valueOf(geburtsdatum),
+                GESCHLECHTER[random.nextInt(GESCHLECHTER.length)],
+                "https://www.example.com/" + index,
+                adresseId,
+                USERNAME,
+            });
+
+            final var anzahlKurse = random.nextInt(MAX_KURSE + 1);
+            for (var idx = 0; idx < anzahlKurse; idx++) {
+                final long kursIndex = (long) index * MAX_KURSE + idx;
+                kurse.add(new Object[]{
+                    new UUID(KURS_MSB, kursIndex),
+                    KURSE[random.nextInt(KURSE.length)],
+                    "kurs." + kursIndex + "@example.com",
+                    dozentId,
+                    idx,
+                });
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(_ -> {
+            jdbcTemplate.batchUpdate(ADRESSE_SQL, adressen);
+            jdbcTemplate.batchUpdate(DOZENT_SQL, dozenten);
+            jdbcTemplate.batchUpdate(KURS_SQL, kurse);
+        });
+        log.debug("insertBlock: block={}, dozenten={}, kurse={}", block, anzahl, kurse.size());
+    }
+
+    // kumulierte Verteilung nach Zipf mit Exponent 1: der i-te Wert hat die Haeufigkeit 1/i
+    private static double[] zipf(final int anzahl) {
+        final var kumuliert = new double[anzahl];
+        var summe = 0.0;
+        for (var i = 0; i < anzahl; i++) {
+            summe += 1.0 / (i + 1);
+            kumuliert[i] = summe;
+        }
+        for (var i = 0; i < anzahl; i++) {
+            kumuliert[i] /= summe;
+        }
+        return kumuliert;
+    }
+
+    private static int sample(final SplittableRandom random, final double[] kumuliert) {
+        final var index = Arrays.binarySearch(kumuliert, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, kumuliert.length - 1);
+    }
+}
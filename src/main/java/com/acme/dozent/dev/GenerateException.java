@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.dev;
+
+import lombok.Getter;
+
+/**
+ * RuntimeException, falls die Generierung von Dozenten abgebrochen wurde. Bereits eingefügte Blöcke bleiben erhalten.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Getter
+class GenerateException extends RuntimeException {
+    /**
+     * Anzahl der Dozenten, die vor dem Abbruch eingefügt wurden.
+     */
+    private final int eingefuegt;
+
+    @SuppressWarnings("ParameterHidesMemberVariable")
+    GenerateException(final String message, final int eingefuegt, final Throwable cause) {
+        super(message + " nach " + eingefuegt + " Dozenten", cause);
+        this.eingefuegt = eingefuegt;
+    }
+}
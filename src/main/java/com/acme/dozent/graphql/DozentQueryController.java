@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.graphql;
+
+import com.acme.dozent.entity.Dozent;
+import com.acme.dozent.entity.Kurs;
+import com.acme.dozent.security.JwtService;
+import com.acme.dozent.service.DozentReadService;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Controller für die Queries mit GraphQL. Die Adresse wird durch den EntityGraph mitgeladen; die Kurse werden für
+ * alle Dozenten einer Query durch einen DataLoader gebündelt geladen.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+class DozentQueryController {
+    private final DozentReadService service;
+    private final JwtService jwtService;
+
+    /**
+     * Suche anhand der Dozent-ID.
+     *
+     * @param id ID des zu suchenden Dozenten
+     * @param jwt JWT für Security
+     * @return Der gefundene Dozent
+     */
+    @QueryMapping("dozent")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public Dozent findById(@Argument final UUID id, @AuthenticationPrincipal final Jwt jwt) {
+        final var username = jwtService.getUsername(jwt);
+        final var rollen = jwtService.getRollen(jwt);
+        log.debug("findById: id={}, username={}, rollen={}", id, username, rollen);
+        final var dozent = service.findById(id, username, rollen, false);
+        log.debug("findById: {}", dozent);
+        return dozent;
+    }
+
+    /**
+     * Suche mit diversen Suchkriterien.
+     *
+     * @param input Suchkriterien oder null
+     * @return Die gefundenen Dozenten
+     */
+    @QueryMapping("dozenten")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Collection<Dozent> find(@Argument final Suchkriterien input) {
+        log.debug("find: input={}", input);
+        final var suchkriterien = input == null ? Map.<String, List<String>>of() : input.toMap();
+        final var dozenten = service.find(suchkriterien);
+        log.debug("find: {}", dozenten);
+        return dozenten;
+    }
+
+    /**
+     * Die Kurse zu allen Dozenten einer Query mit einer SQL-Anweisung laden.
+     *
+     * @param dozenten Die Dozenten der Query
+     * @return Die Kurse je Dozent
+     */
+    @BatchMapping
+    public Map<Dozent, List<Kurs>> kurse(final List<Dozent> dozenten) {
+        final var ids = dozenten.stream().map(Dozent::getId).toList();
+        log.debug("kurse: ids={}", ids);
+        final var kurse = service.findKurse(ids);
+        return dozenten.stream()
+            .collect(Collectors.toMap(
+                Function.identity(),
+                dozent -> kurse.getOrDefault(dozent.getId(), List.of())
+            ));
+    }
+}
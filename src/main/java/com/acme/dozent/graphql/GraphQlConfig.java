@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.graphql;
+
+import com.acme.dozent.GraphQlProps;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Konfiguration für GraphQL, um die Datenbank vor zu tief geschachtelten bzw. zu komplexen Queries zu schützen.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+public interface GraphQlConfig {
+    /**
+     * Bean-Definition, um die Schachtelungstiefe einer Query zu begrenzen.
+     *
+     * @param props Konfiguration für GraphQL
+     * @return Instrumentation für die maximale Schachtelungstiefe
+     */
+    @Bean
+    default MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(final GraphQlProps props) {
+        return new MaxQueryDepthInstrumentation(props.maxDepth());
+    }
+
+    /**
+     * Bean-Definition, um die Komplexität einer Query zu begrenzen.
+     *
+     * @param props Konfiguration für GraphQL
+     * @return Instrumentation für die maximale Komplexität
+     */
+    @Bean
+    default MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(final GraphQlProps props) {
+        return new MaxQueryComplexityInstrumentation(props.maxComplexity());
+    }
+}
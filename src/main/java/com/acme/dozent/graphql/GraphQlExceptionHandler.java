@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.graphql;
+
+import com.acme.dozent.service.AccessForbiddenException;
+import com.acme.dozent.service.NotFoundException;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import static org.springframework.graphql.execution.ErrorType.FORBIDDEN;
+import static org.springframework.graphql.execution.ErrorType.NOT_FOUND;
+
+/**
+ * Abbildung der Exceptions aus der Anwendungslogik auf Fehler bei GraphQL.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@ControllerAdvice
+@Slf4j
+class GraphQlExceptionHandler {
+    @GraphQlExceptionHandler
+    GraphQLError onNotFound(final NotFoundException ex, final DataFetchingEnvironment env) {
+        log.debug("onNotFound: {}", ex.getMessage());
+        return GraphqlErrorBuilder.newError(env)
+            .errorType(NOT_FOUND)
+            .message(ex.getMessage())
+            .build();
+    }
+
+    @GraphQlExceptionHandler
+    GraphQLError onAccessForbidden(final AccessForbiddenException ex, final DataFetchingEnvironment env) {
+        log.debug("onAccessForbidden: {}", ex.getMessage());
+        return GraphqlErrorBuilder.newError(env)
+            .errorType(FORBIDDEN)
+            .message(ex.getMessage())
+            .build();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.graphql;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Eingabedaten für die Suche mit GraphQL.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param name Name als Suchkriterium
+ * @param email Emailadresse als Suchkriterium
+ * @param plz Postleitzahl als Suchkriterium
+ * @param ort Ort als Suchkriterium
+ */
+record Suchkriterien(String name, String email, String plz, String ort) {
+    /**
+     * Die Suchkriterien in eine Map wie bei den Query-Parametern konvertieren.
+     *
+     * @return Die gesetzten Suchkriterien als Map
+     */
+    Map<String, List<String>> toMap() {
+        final Map<String, List<String>> map = new HashMap<>(4, 1);
+        putIfNotNull(map, "name", name);
+        putIfNotNull(map, "email", email);
+        putIfNotNull(map, "plz", plz);
+        putIfNotNull(map, "ort", ort);
+        return map;
+    }
+
+    private static void putIfNotNull(final Map<String, List<String>> map, final String key, final String value) {
+        if (value != null) {
+            map.put(key, List.of(value));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.function.ToDoubleFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Export der Hibernate-Statistik zu Micrometer, damit sie z.B. durch Prometheus abgefragt werden kann. Die Statistik
+ * muss in application.yml durch <code>hibernate.generate_statistics</code> aktiviert sein.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+class HibernateStatisticsMetrics implements MeterBinder {
+    private final EntityManagerFactory entityManagerFactory;
+
+    HibernateStatisticsMetrics(final EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(@NonNull final MeterRegistry registry) {
+        final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            log.warn("bindTo: Die Hibernate-Statistik ist deaktiviert");
+            return;
+        }
+
+        counter(registry, statistics, "hibernate.query.executions", "Ausgeführte Queries",
+            Statistics::getQueryExecutionCount);
+        counter(registry, statistics, "hibernate.statements.prepared", "Vorbereitete JDBC-Statements",
+            Statistics::getPrepareStatementCount);
+        counter(registry, statistics, "hibernate.entities.loads", "Geladene Entities",
+            Statistics::getEntityLoadCount);
+        counter(registry, statistics, "hibernate.entities.fetches", "Nachgeladene Entities",
+            Statistics::getEntityFetchCount);
+        counter(registry, statistics, "hibernate.collections.loads", "Geladene Collections",
+            Statistics::getCollectionLoadCount);
+        counter(registry, statistics, "hibernate.collections.fetches", "Nachgeladene Collections",
+            Statistics::getCollectionFetchCount);
+        counter(registry, statistics, "hibernate.second.level.cache.hits", "Treffer im 2nd-Level-Cache",
+            Statistics::getSecondLevelCacheHitCount);
+        counter(registry, statistics, "hibernate.second.level.cache.misses", "Fehlschläge im 2nd-Level-Cache",
+            Statistics::getSecondLevelCacheMissCount);
+        counter(registry, statistics, "hibernate.second.level.cache.puts", "Einträge in den 2nd-Level-Cache",
+            Statistics::getSecondLevelCachePutCount);
+        counter(registry, statistics, "hibernate.flushes", "Flush-Vorgänge",
+            Statistics::getFlushCount);
+        counter(registry, statistics, "hibernate.transactions", "Transaktionen",
+            Statistics::getTransactionCount);
+
+        Gauge.builder("hibernate.query.executions.max", statistics, Statistics::getQueryExecutionMaxTime)
+            .description("Maximale Ausführungsdauer einer Query")
+            .baseUnit("milliseconds")
+            .register(registry);
+    }
+
+    private void counter(
+        final MeterRegistry registry,
+        final Statistics statistics,
+        final String name,
+        final String description,
+        final ToDoubleFunction<Statistics> function
+    ) {
+        FunctionCounter.builder(name, statistics, function)
+            .description(description)
+            .register(registry);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import com.acme.dozent.deadline.Deadline;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+/**
+ * DataSource, die Connections, Statements und ResultSets durch JDK-Proxies ummantelt, um die Ausführungsdauer und die
+ * Anzahl der Zeilen jeder SQL-Anweisung in {@link QueryStatistics} und für {@link ServerTiming} zu erfassen. Außerdem
+ * wird die Frist des Requests gemäß {@link Deadline} als Query-Timeout gesetzt.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+final class ProfilingDataSource extends DelegatingDataSource implements AutoCloseable {
+    private static final String BATCH = "(batch)";
+
+    private final QueryStatistics statistics;
+
+    ProfilingDataSource(final DataSource targetDataSource, final QueryStatistics statistics) {
+        super(targetDataSource);
+        this.statistics = statistics;
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    /**
+     * Die ummantelte DataSource schließen, z.B. den Connection-Pool beim Herunterfahren.
+     *
+     * @throws Exception falls die ummantelte DataSource nicht geschlossen werden kann
+     */
+    @Override
+    @SuppressWarnings("IllegalThrows")
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable target) {
+            target.close();
+        }
+    }
+
+    private static <T> T proxy(final Class<T> type, final InvocationHandler handler) {
+        final var classLoader = ProfilingDataSource.class.getClassLoader();
+        return type.cast(Proxy.newProxyInstance(classLoader, new Class<?>[]{type}, handler));
+    }
+
+    @SuppressWarnings("IllegalThrows")
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        ConnectionHandler(final Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        @SuppressWarnings("IllegalThrows")
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final var result = ProfilingDataSource.invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null));
+                case "prepareStatement" ->
+                    proxy(PreparedStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall" ->
+                    proxy(CallableStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private QueryStatistics.Entry lastEntry;
+
+        StatementHandler(final Statement statement, final String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        @SuppressWarnings({"IllegalThrows", "ReturnCount"})
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final var name = method.getName();
+            if (!name.startsWith("execute")) {
+                final var result = ProfilingDataSource.invoke(statement, method, args);
+                if ("getResultSet".equals(name) && result instanceof ResultSet resultSet && lastEntry != null) {
+                    return proxy(ResultSet.class, new ResultSetHandler(resultSet, lastEntry));
+                }
+                return result;
+            }
+
+            final var sql = args != null && args.length > 0 && args[0] instanceof String str ? str : preparedSql;
+            final var deadline = Deadline.current();
+            if (deadline != null) {
+                deadline.beforeExecute(statement);
+            }
+            final var start = System.nanoTime();
+            final Object result;
+            try {
+                result = ProfilingDataSource.invoke(statement, method, args);
+            } catch (final Throwable ex) {
+                throw deadline == null ? ex : deadline.afterExecute(statement, ex);
+            } finally {
+                if (deadline != null) {
+                    deadline.afterExecute(statement, null);
+                }
+                final var nanos = System.nanoTime() - start;
+                ServerTiming.addSql(nanos);
+                lastEntry = statistics.isEnabled() ? statistics.record(sql == null ? BATCH : sql, nanos) : null;
+            }
+            return lastEntry == null ? result : countRows(result, lastEntry);
+        }
+
+        @SuppressWarnings("ChainOfInstanceofChecks")
+        private Object countRows(final Object result, final QueryStatistics.Entry entry) {
+            if (result instanceof Integer rows) {
+                entry.addRows(Math.max(rows, 0));
+            } else if (result instanceof Long rows) {
+                entry.addRows(Math.max(rows, 0));
+            } else if (result instanceof int[] batchRows) {
+                for (final var rows : batchRows) {
+                    entry.addRows(Math.max(rows, 0));
+                }
+            } else if (result instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, entry));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final QueryStatistics.Entry entry;
+        private long rows;
+        private boolean closed;
+
+        ResultSetHandler(final ResultSet resultSet, final QueryStatistics.Entry entry) {
+            this.resultSet = resultSet;
+            this.entry = entry;
+        }
+
+        @Override
+        @SuppressWarnings("IllegalThrows")
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final var result = ProfilingDataSource.invoke(resultSet, method, args);
+            switch (method.getName()) {
+                case "next" -> {
+                    if (Boolean.TRUE.equals(result)) {
+                        rows++;
+                    }
+                }
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        entry.addRows(rows);
+                    }
+                }
+                default -> {
+                    // keine Erfassung
+                }
+            }
+            return result;
+        }
+    }
+}
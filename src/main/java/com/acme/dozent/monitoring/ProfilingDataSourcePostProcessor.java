@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import com.acme.dozent.DeadlineProps;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * BeanPostProcessor, der die DataSource durch {@link ProfilingDataSource} ummantelt, falls die SQL-Anweisungen erfasst
+ * oder Fristen gesetzt werden. Als äußerste Schicht wird er zuletzt angewendet, damit Hibernate, Flyway usw. die
+ * ummantelte DataSource verwenden.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+class ProfilingDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+    private final ObjectProvider<QueryStatistics> statistics;
+    private final ObjectProvider<DeadlineProps> deadlineProps;
+
+    ProfilingDataSourcePostProcessor(
+        final ObjectProvider<QueryStatistics> statistics,
+        final ObjectProvider<DeadlineProps> deadlineProps
+    ) {
+        this.statistics = statistics;
+        this.deadlineProps = deadlineProps;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull final Object bean, @NonNull final String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProfilingDataSource) {
+            return bean;
+        }
+        final var queryStatistics = statistics.getObject();
+        if (!queryStatistics.isEnabled() && !deadlineProps.getObject().enabled()) {
+            return bean;
+        }
+        log.debug("postProcessAfterInitialization: DataSource {} wird ummantelt", beanName);
+        return new ProfilingDataSource(dataSource, queryStatistics);
+    }
+
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import lombok.Getter;
+
+/**
+ * Exception, falls ein Request mehr SQL-Anweisungen absetzt als konfiguriert, z.B. wegen "N+1 Queries".
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Getter
+public class QueryBudgetExceededException extends RuntimeException {
+    /**
+     * Bisherige Anzahl an SQL-Anweisungen im Request.
+     */
+    private final int count;
+
+    /**
+     * Maximal erlaubte Anzahl an SQL-Anweisungen pro Request.
+     */
+    private final int maxStatements;
+
+    QueryBudgetExceededException(final int count, final int maxStatements) {
+        super("Der Request hat " + count + " SQL-Anweisungen abgesetzt, erlaubt sind " + maxStatements);
+        this.count = count;
+        this.maxStatements = maxStatements;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import com.acme.dozent.QueryBudgetProps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Servlet-Filter, der die SQL-Anweisungen pro Request zählt und bei Überschreitung des konfigurierten Budgets warnt
+ * bzw. den Request abbricht.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+class QueryBudgetFilter extends OncePerRequestFilter {
+    private final QueryBudgetProps props;
+    private final DistributionSummary statementsPerRequest;
+    private final Counter budgetExceeded;
+
+    QueryBudgetFilter(final QueryBudgetProps props, final MeterRegistry meterRegistry) {
+        this.props = props;
+        statementsPerRequest = DistributionSummary.builder("dozent.sql.statements")
+            .description("Anzahl der SQL-Anweisungen pro Request")
+            .baseUnit("statements")
+            .register(meterRegistry);
+        budgetExceeded = Counter.builder("dozent.sql.budget.exceeded")
+            .description("Requests mit mehr SQL-Anweisungen als erlaubt")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull final HttpServletRequest request,
+        @NonNull final HttpServletResponse response,
+        @NonNull final FilterChain filterChain
+    ) throws ServletException, IOException {
+        StatementCounter.start(props.maxStatements(), props.failOnExceed());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            final var budget = StatementCounter.currentBudget();
+            StatementCounter.stop();
+            if (request.isAsyncStarted()) {
+                // z.B. StreamingResponseBody: die SQL-Anweisungen werden im Worker-Thread gezaehlt
+                request.getAsyncContext().addListener(new BudgetListener(budget, request));
+            } else {
+                record(budget.count(), request);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // die asynchrone Verarbeitung wird durch BudgetListener erfasst
+        return true;
+    }
+
+    private void record(final int count, final HttpServletRequest request) {
+        final var maxStatements = props.maxStatements();
+        statementsPerRequest.record(count);
+        if (maxStatements > 0 && count > maxStatements) {
+            budgetExceeded.increment();
+            log.warn(
+                "{} {}: {} SQL-Anweisungen bei einem Budget von {}",
+                request.getMethod(),
+                request.getRequestURI(),
+                count,
+                maxStatements
+            );
+        }
+    }
+
+    private final class BudgetListener implements AsyncListener {
+        private final StatementCounter.Budget budget;
+        private final HttpServletRequest request;
+
+        BudgetListener(final StatementCounter.Budget budget, final HttpServletRequest request) {
+            this.budget = budget;
+            this.request = request;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            record(budget.count(), request);
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            // onComplete folgt
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            // onComplete folgt
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // keine Aktion
+        }
+    }
+}
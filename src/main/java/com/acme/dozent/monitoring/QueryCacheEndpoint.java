@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import com.acme.dozent.service.QueryResultCache;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator-Endpoint <code>/actuator/querycache</code> für den Cache der Suchresultate.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Endpoint(id = "querycache")
+@RequiredArgsConstructor
+@Slf4j
+public class QueryCacheEndpoint {
+    private final QueryResultCache cache;
+
+    /**
+     * Generation und Anzahl der Einträge abfragen.
+     *
+     * @return Map mit den Schlüsseln "generation" und "eintraege"
+     */
+    @ReadOperation
+    public Map<String, Long> info() {
+        log.debug("info");
+        return Map.of(
+            "generation", cache.getGeneration(),
+            "eintraege", cache.size()
+        );
+    }
+
+    /**
+     * Alle Einträge verwerfen.
+     */
+    @DeleteOperation
+    public void flush() {
+        log.info("flush: Cache der Suchresultate wird geleert");
+        cache.flush();
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import com.acme.dozent.SlowQueryProps;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Statistik der SQL-Anweisungen gruppiert nach Fingerprint. Das Erfassen ist lock-free durch ConcurrentHashMap,
+ * LongAdder und AtomicLong; die langsamsten bzw. häufigsten Anweisungen werden erst beim Abfragen sortiert. Beim
+ * Zurücksetzen wird die Statistik durch eine neue ersetzt; die Timer für Micrometer bleiben registriert, weil ihre
+ * Werte kumulativ sind.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+public class QueryStatistics {
+    private static final String WEITERE = "(weitere Anweisungen)";
+    private static final int MAX_SQL_CACHE = 2_000;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    // 16 Hex-Ziffern des SHA-256-Hashwerts
+    private static final int ID_BYTES = 8;
+
+    private final AtomicReference<ConcurrentMap<String, Entry>> entries =
+        new AtomicReference<>(new ConcurrentHashMap<>());
+    // Fingerprint -> Timer, unabhaengig vom Zuruecksetzen der Statistik
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    // SQL-String -> Fingerprint, damit der Fingerprint nicht bei jeder Ausfuehrung neu berechnet wird
+    private final ConcurrentMap<String, String> fingerprints = new ConcurrentHashMap<>();
+    private final SlowQueryProps props;
+    private final MeterRegistry meterRegistry;
+
+    QueryStatistics(final SlowQueryProps props, final MeterRegistry meterRegistry) {
+        this.props = props;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Abfrage, ob die SQL-Anweisungen erfasst werden.
+     *
+     * @return true, falls die SQL-Anweisungen erfasst werden
+     */
+    boolean isEnabled() {
+        return props.enabled();
+    }
+
+    /**
+     * Eine Ausführung einer SQL-Anweisung erfassen.
+     *
+     * @param sql Die ausgeführte SQL-Anweisung
+     * @param nanos Die Ausführungsdauer in Nanosekunden
+     * @return Der Eintrag zum Fingerprint, um später die Anzahl der Zeilen zu ergänzen
+     */
+    Entry record(final String sql, final long nanos) {
+        final var fingerprint = fingerprint(sql);
+        final var current = entries.get();
+        var entry = current.get(fingerprint);
+        if (entry == null) {
+            final var key = timers.containsKey(fingerprint) || timers.size() < props.maxFingerprints()
+                ? fingerprint
+                : WEITERE;
+            entry = current.computeIfAbsent(key, this::newEntry);
+        }
+        entry.record(nanos);
+        return entry;
+    }
+
+    /**
+     * Die langsamsten SQL-Anweisungen gemäß der maximalen Ausführungsdauer.
+     *
+     * @return Die langsamsten SQL-Anweisungen in absteigender Reihenfolge
+     */
+    public List<SqlStatistik> slowest() {
+        return top(Comparator.comparingDouble(SqlStatistik::maxMs).reversed());
+    }
+
+    /**
+     * Die am häufigsten ausgeführten SQL-Anweisungen.
+     *
+     * @return Die häufigsten SQL-Anweisungen in absteigender Reihenfolge
+     */
+    public List<SqlStatistik> mostFrequent() {
+        return top(Comparator.comparingLong(SqlStatistik::anzahl).reversed());
+    }
+
+    /**
+     * Die bisherige Statistik zurücksetzen.
+     */
+    public void reset() {
+        log.debug("reset");
+        // gleichzeitige Erfassungen in der alten Statistik gehen verloren, aber nicht in die neue ein
+        entries.set(new ConcurrentHashMap<>());
+    }
+
+    private List<SqlStatistik> top(final Comparator<SqlStatistik> comparator) {
+        return entries.get()
+            .values()
+            .stream()
+            .map(Entry::toStatistik)
+            .sorted(comparator)
+            .limit(props.top())
+            .toList();
+    }
+
+    private String fingerprint(final String sql) {
+        final var cached = fingerprints.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        final var fingerprint = SqlFingerprint.of(sql);
+        if (fingerprints.size() < MAX_SQL_CACHE) {
+            fingerprints.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private Entry newEntry(final String fingerprint) {
+        final var id = id(fingerprint);
+        log.trace("newEntry: id={}, fingerprint={}", id, fingerprint);
+        final var timer = timers.computeIfAbsent(fingerprint, _ -> Timer.builder("dozent.sql")
+            .description("Ausführungsdauer der SQL-Anweisungen je Fingerprint")
+            .tag("fingerprint", id)
+            .register(meterRegistry));
+        return new Entry(id, fingerprint, timer);
+    }
+
+    // Praefix des SHA-256-Hashwerts statt hashCode(), damit verschiedene Fingerprints nicht denselben Timer verwenden
+    private static String id(final String fingerprint) {
+        try {
+            final var hash = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, ID_BYTES);
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Erfasste Werte zu einem Fingerprint.
+     */
+    static final class Entry {
+        private final String id;
+        private final String fingerprint;
+        private final Timer timer;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder rows = new LongAdder();
+
+        Entry(final String id, final String fingerprint, final Timer timer) {
+            this.id = id;
+            this.fingerprint = fingerprint;
+            this.timer = timer;
+        }
+
+        void record(final long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            timer.record(nanos, NANOSECONDS);
+        }
+
+        /**
+         * Gelesene bzw. geänderte Zeilen ergänzen.
+         *
+         * @param anzahl Anzahl der Zeilen
+         */
+        void addRows(final long anzahl) {
+            rows.add(anzahl);
+        }
+
+        SqlStatistik toStatistik() {
+            return new SqlStatistik(
+                id,
+                fingerprint,
+                count.sum(),
+                totalNanos.sum() / NANOS_PER_MILLI,
+                maxNanos.get() / NANOS_PER_MILLI,
+                rows.sum()
+            );
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import com.acme.dozent.replica.ConsistencyToken;
+
+/**
+ * Übergabe der Zeitmessung für den Header <code>Server-Timing</code>, der Zählung der SQL-Anweisungen und der
+ * Anforderung der primären DB durch ein Konsistenz-Token an einen Worker-Thread, z.B. bei asynchroner Verarbeitung
+ * durch <code>StreamingResponseBody</code>. Der Request-Thread ist während der asynchronen Verarbeitung nicht mehr
+ * aktiv, so dass die Messwerte nur vom Worker-Thread geändert werden.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+public final class RequestContext {
+    private final ServerTiming timing;
+    private final StatementCounter.Budget budget;
+    private final boolean primaryRequired;
+
+    private RequestContext(
+        final ServerTiming timing,
+        final StatementCounter.Budget budget,
+        final boolean primaryRequired
+    ) {
+        this.timing = timing;
+        this.budget = budget;
+        this.primaryRequired = primaryRequired;
+    }
+
+    /**
+     * Die Messwerte des aktuellen Threads erfassen.
+     *
+     * @return Die Messwerte für einen Worker-Thread
+     */
+    public static RequestContext capture() {
+        return new RequestContext(
+            ServerTiming.current(),
+            StatementCounter.currentBudget(),
+            ConsistencyToken.isPrimaryRequired()
+        );
+    }
+
+    /**
+     * Die erfassten Messwerte an den aktuellen Thread binden.
+     */
+    public void bind() {
+        ServerTiming.bind(timing);
+        StatementCounter.bind(budget);
+        ConsistencyToken.bind(primaryRequired);
+    }
+
+    /**
+     * Die Messwerte vom aktuellen Thread entfernen.
+     */
+    public static void clear() {
+        ServerTiming.clear();
+        StatementCounter.bind(null);
+        ConsistencyToken.bind(false);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import java.util.Locale;
+
+/**
+ * Request-bezogene Zeitmessung für den Response-Header <code>Server-Timing</code>. Die Messwerte werden von den
+ * Filtern, dem Aspekt für DozentReadService, der ProfilingDataSource und vor der Serialisierung im selben Thread
+ * erfasst.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+public final class ServerTiming {
+    /**
+     * Name des Response-Headers.
+     */
+    static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long start;
+    private long authEnd;
+    private long serviceNanos;
+    private long dbNanos;
+    private int sqlCount;
+    private long serializationStart;
+    private boolean active;
+
+    private ServerTiming(final long start) {
+        this.start = start;
+    }
+
+    static void start() {
+        CURRENT.set(new ServerTiming(System.nanoTime()));
+    }
+
+    static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    // z.B. fuer einen Worker-Thread bei asynchroner Verarbeitung
+    static void bind(final ServerTiming timing) {
+        if (timing != null) {
+            CURRENT.set(timing);
+        }
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Eine SQL-Anweisung für den aktuellen Request erfassen.
+     *
+     * @param nanos Ausführungsdauer in Nanosekunden
+     */
+    static void addSql(final long nanos) {
+        final var timing = CURRENT.get();
+        if (timing != null && timing.active) {
+            timing.dbNanos += nanos;
+            timing.sqlCount++;
+        }
+    }
+
+    /**
+     * Den Beginn der Serialisierung für den aktuellen Request markieren, z.B. falls ein Controller den Response-Body
+     * selbst serialisiert, statt ihn einem HttpMessageConverter zu übergeben.
+     */
+    public static void serializing() {
+        final var timing = CURRENT.get();
+        if (timing != null) {
+            timing.startSerialization();
+        }
+    }
+
+    /**
+     * Die Authentifizierung ist abgeschlossen und es wird entschieden, ob der Header erzeugt wird.
+     *
+     * @param headerActive true, falls der Header für den Request erzeugt wird
+     */
+    void authenticated(final boolean headerActive) {
+        authEnd = System.nanoTime();
+        active = headerActive;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    void addService(final long nanos) {
+        serviceNanos += nanos;
+    }
+
+    void startSerialization() {
+        if (active && serializationStart == 0) {
+            serializationStart = System.nanoTime();
+        }
+    }
+
+    boolean isSerializing() {
+        return serializationStart != 0;
+    }
+
+    /**
+     * Den Wert für den Header <code>Server-Timing</code> ermitteln.
+     *
+     * @return Wert für den Header
+     */
+    String header() {
+        final var end = System.nanoTime();
+        final var handlerEnd = serializationStart == 0 ? end : serializationStart;
+        final var header = new StringBuilder(256)
+            .append(metric("auth", "Security", authEnd - start))
+            .append(", ").append(metric("svc", "DozentReadService", serviceNanos))
+            .append(", ").append(metric("db", "JDBC", dbNanos))
+            .append(", ").append(metric("app", "Controller", handlerEnd - authEnd - serviceNanos));
+        if (serializationStart != 0) {
+            header.append(", ").append(metric("json", "Serialisierung", end - serializationStart));
+        }
+        return header
+            .append(", sql;desc=\"").append(sqlCount).append(" SQL-Anweisungen\"")
+            .append(", ").append(metric("total", "Gesamt", end - start))
+            .toString();
+    }
+
+    private static String metric(final String name, final String description, final long nanos) {
+        return String.format(
+            Locale.ROOT,
+            "%s;desc=\"%s\";dur=%.2f",
+            name,
+            description,
+            Math.max(nanos, 0) / NANOS_PER_MILLI
+        );
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspekt, der die Dauer der Methoden von DozentReadService für den Header <code>Server-Timing</code> erfasst.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Aspect
+@Component
+class ServerTimingAspect {
+    /**
+     * Die Dauer eines Aufrufs von DozentReadService erfassen, falls der Header erzeugt wird.
+     *
+     * @param joinPoint Der Aufruf
+     * @return Das Resultat des Aufrufs
+     * @throws Throwable Exception des Aufrufs
+     */
+    @Around("execution(public * com.acme.dozent.service.DozentReadService.*(..))")
+    @SuppressWarnings("IllegalThrows")
+    public Object timeService(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final var timing = ServerTiming.current();
+        if (timing == null || !timing.isActive()) {
+            return joinPoint.proceed();
+        }
+        final var start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timing.addService(System.nanoTime() - start);
+        }
+    }
+}
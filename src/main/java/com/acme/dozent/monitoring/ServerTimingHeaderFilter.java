@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import com.acme.dozent.ServerTimingProps;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import static com.acme.dozent.security.Rolle.ADMIN;
+import static org.springframework.boot.autoconfigure.security.SecurityProperties.DEFAULT_FILTER_ORDER;
+
+/**
+ * Servlet-Filter nach Spring Security, der entscheidet, ob der Header <code>Server-Timing</code> erzeugt wird, und ihn
+ * vor dem Senden des Response-Bodys setzt.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Order(DEFAULT_FILTER_ORDER + 1)
+@RequiredArgsConstructor
+class ServerTimingHeaderFilter extends OncePerRequestFilter {
+    private static final String ROLE_ADMIN = "ROLE_" + ADMIN.name();
+
+    private final ServerTimingProps props;
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull final HttpServletRequest request,
+        @NonNull final HttpServletResponse response,
+        @NonNull final FilterChain filterChain
+    ) throws ServletException, IOException {
+        final var timing = ServerTiming.current();
+        if (timing == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final var active = props.enabled() || props.admin() && isAdmin();
+        timing.authenticated(active);
+        if (!active) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final var timingResponse = new ServerTimingResponse(response, timing);
+        try {
+            filterChain.doFilter(request, timingResponse);
+        } finally {
+            // bei asynchroner Verarbeitung wird der Header beim ersten Schreiben des Bodys gesetzt
+            if (!request.isAsyncStarted()) {
+                timingResponse.finish();
+            }
+        }
+    }
+
+    private static boolean isAdmin() {
+        final var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities()
+            .stream()
+            .anyMatch(authority -> ROLE_ADMIN.equals(authority.getAuthority()));
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Response-Wrapper, der den Header <code>Server-Timing</code> setzt, bevor der Response-Body gesendet wird. Nur ein
+ * Body, der synchron von einem HttpMessageConverter geschrieben wird, wird gepuffert, damit die Serialisierung im
+ * Header enthalten ist. Bei anderen Bodys, z.B. bei asynchronem Streaming, wird der Header beim ersten Schreiben
+ * gesetzt. Wird für den gepufferten Body ein WriteListener registriert, d.h. nicht-blockierend geschrieben, wird der
+ * bisherige Puffer gesendet und danach direkt in den Response geschrieben.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+final class ServerTimingResponse extends HttpServletResponseWrapper {
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final ServerTiming timing;
+    private ByteArrayOutputStream buffer;
+    private ServletOutputStream bufferStream;
+    private boolean headerWritten;
+
+    ServerTimingResponse(final HttpServletResponse response, final ServerTiming timing) {
+        super(response);
+        this.timing = timing;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (bufferStream != null) {
+            return bufferStream;
+        }
+        if (timing.isSerializing()) {
+            buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+            bufferStream = new BufferStream();
+            return bufferStream;
+        }
+        writeHeader();
+        return super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        writeHeader();
+        return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (buffer == null) {
+            writeHeader();
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void sendError(final int sc, final String msg) throws IOException {
+        writeHeader();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(final int sc) throws IOException {
+        writeHeader();
+        super.sendError(sc);
+    }
+
+    /**
+     * Den Header setzen und den gepufferten Body senden.
+     *
+     * @throws IOException falls der Body nicht gesendet werden kann
+     */
+    void finish() throws IOException {
+        writeHeader();
+        if (buffer != null) {
+            final var out = super.getOutputStream();
+            buffer.writeTo(out);
+            out.flush();
+        }
+    }
+
+    private void writeHeader() {
+        if (!headerWritten && !isCommitted()) {
+            headerWritten = true;
+            setHeader(ServerTiming.HEADER, timing.header());
+        }
+    }
+
+    // bisher gepufferten Body senden; danach wird nicht mehr gepuffert
+    private ServletOutputStream unbuffer() throws IOException {
+        writeHeader();
+        final var out = super.getOutputStream();
+        if (buffer != null) {
+            buffer.writeTo(out);
+            buffer = null;
+        }
+        return out;
+    }
+
+    private final class BufferStream extends ServletOutputStream {
+        private ServletOutputStream delegate;
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (delegate == null) {
+                buffer.write(b);
+            } else {
+                delegate.write(b);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (delegate == null) {
+                buffer.write(b, off, len);
+            } else {
+                delegate.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (delegate != null) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate == null || delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            // der Listener wird vom Container aufgerufen, d.h. das Ende ist fuer den Puffer nicht erkennbar
+            try {
+                delegate = unbuffer();
+            } catch (final IOException ex) {
+                writeListener.onError(ex);
+                return;
+            }
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator-Endpoint <code>/actuator/slowqueries</code> mit den langsamsten und den häufigsten SQL-Anweisungen.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+@Slf4j
+public class SlowQueryEndpoint {
+    private final QueryStatistics statistics;
+
+    /**
+     * Die langsamsten und die häufigsten SQL-Anweisungen abfragen.
+     *
+     * @return Map mit den Schlüsseln "langsamste" und "haeufigste"
+     */
+    @ReadOperation
+    public Map<String, List<SqlStatistik>> slowQueries() {
+        log.debug("slowQueries");
+        return Map.of(
+            "langsamste", statistics.slowest(),
+            "haeufigste", statistics.mostFrequent()
+        );
+    }
+
+    /**
+     * Die bisherige Statistik zurücksetzen.
+     */
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
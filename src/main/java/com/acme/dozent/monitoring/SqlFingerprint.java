@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisierung von SQL-Anweisungen zu einem "Fingerprint": Kommentare werden entfernt, Whitespace zusammengefasst,
+ * Literale durch <code>?</code> ersetzt und Listen bei <code>IN (?, ?, ...)</code> verkürzt. Dadurch werden z.B. die
+ * verschiedenen Kombinationen des SpecificationBuilder unabhängig von den konkreten Suchwerten gruppiert.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+final class SqlFingerprint {
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(?:, ?\\?)+\\)");
+
+    private SqlFingerprint() {
+    }
+
+    /**
+     * Fingerprint zu einer SQL-Anweisung ermitteln.
+     *
+     * @param sql Die SQL-Anweisung
+     * @return Der normalisierte Fingerprint
+     */
+    @SuppressWarnings({"CyclomaticComplexity", "NPathComplexity", "ModifiedControlVariable"})
+    static String of(final String sql) {
+        final var length = sql.length();
+        final var fingerprint = new StringBuilder(length);
+        var whitespace = false;
+        var i = 0;
+        while (i < length) {
+            final var c = sql.charAt(i);
+            if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                final var end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                whitespace = true;
+                continue;
+            }
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                final var end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+                whitespace = true;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                whitespace = true;
+                i++;
+                continue;
+            }
+
+            if (whitespace && !fingerprint.isEmpty()) {
+                fingerprint.append(' ');
+            }
+            if (c == '\'') {
+                i = skipString(sql, i);
+                fingerprint.append('?');
+            } else if (Character.isDigit(c) && (whitespace || !isIdentifierPart(fingerprint))) {
+                i = skipNumber(sql, i);
+                fingerprint.append('?');
+            } else {
+                fingerprint.append(c);
+                i++;
+            }
+            whitespace = false;
+        }
+        final var normalized = fingerprint.toString().toLowerCase(Locale.ROOT);
+        return IN_LIST.matcher(normalized).replaceAll("(?...)");
+    }
+
+    private static int skipString(final String sql, final int start) {
+        var i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                // '' innerhalb eines Literals
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipNumber(final String sql, final int start) {
+        var i = start;
+        while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isIdentifierPart(final CharSequence fingerprint) {
+        if (fingerprint.isEmpty()) {
+            return false;
+        }
+        final var last = fingerprint.charAt(fingerprint.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_';
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+/**
+ * Statistik zu einem SQL-Fingerprint für den Actuator-Endpoint "slowqueries".
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ * @param id Kurze ID des Fingerprints, die auch als Tag bei Micrometer verwendet wird
+ * @param sql Der normalisierte Fingerprint der SQL-Anweisung
+ * @param anzahl Anzahl der Ausführungen
+ * @param summeMs Gesamte Ausführungsdauer in Millisekunden
+ * @param maxMs Maximale Ausführungsdauer in Millisekunden
+ * @param zeilen Anzahl der gelesenen bzw. geänderten Zeilen
+ */
+public record SqlStatistik(String id, String sql, long anzahl, double summeMs, double maxMs, long zeilen) {
+    /**
+     * Durchschnittliche Ausführungsdauer in Millisekunden.
+     *
+     * @return Durchschnittliche Ausführungsdauer
+     */
+    public double durchschnittMs() {
+        return anzahl == 0 ? 0 : summeMs / anzahl;
+    }
+}
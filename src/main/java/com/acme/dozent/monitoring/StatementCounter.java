@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * StatementInspector für Hibernate, der die SQL-Anweisungen pro Request zählt. Die Klasse wird in application.yml
+ * durch <code>hibernate.session_factory.statement_inspector</code> registriert und von Hibernate instanziiert.
+ * Da jeder Request in einem eigenen (virtuellen) Thread bearbeitet wird, genügt ein ThreadLocal.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+public final class StatementCounter implements StatementInspector {
+    private static final ThreadLocal<Budget> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Konstruktor für Hibernate.
+     */
+    public StatementCounter() {
+        // Zustand ist im ThreadLocal
+    }
+
+    @Override
+    public String inspect(final String sql) {
+        final var budget = CURRENT.get();
+        if (budget != null) {
+            budget.increment();
+        }
+        return sql;
+    }
+
+    /**
+     * Anzahl der SQL-Anweisungen im aktuellen Request.
+     *
+     * @return Anzahl der bisherigen SQL-Anweisungen oder 0, falls kein Request bearbeitet wird
+     */
+    public static int current() {
+        final var budget = CURRENT.get();
+        return budget == null ? 0 : budget.count;
+    }
+
+    /**
+     * Zählung für den aktuellen Request beginnen.
+     *
+     * @param maxStatements Maximale Anzahl an SQL-Anweisungen; 0 oder negativ, falls es kein Limit gibt
+     * @param failOnExceed true, falls bei Überschreitung eine Exception geworfen werden soll
+     */
+    static void start(final int maxStatements, final boolean failOnExceed) {
+        CURRENT.set(new Budget(maxStatements, failOnExceed));
+    }
+
+    /**
+     * Zählung für den aktuellen Request beenden.
+     *
+     * @return Anzahl der SQL-Anweisungen im Request
+     */
+    static int stop() {
+        final var count = current();
+        CURRENT.remove();
+        return count;
+    }
+
+    static Budget currentBudget() {
+        return CURRENT.get();
+    }
+
+    // z.B. fuer einen Worker-Thread bei asynchroner Verarbeitung
+    static void bind(final Budget budget) {
+        if (budget == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(budget);
+        }
+    }
+
+    static final class Budget {
+        private final int maxStatements;
+        private final boolean failOnExceed;
+        private int count;
+
+        Budget(final int maxStatements, final boolean failOnExceed) {
+            this.maxStatements = maxStatements;
+            this.failOnExceed = failOnExceed;
+        }
+
+        int count() {
+            return count;
+        }
+
+        void increment() {
+            count++;
+            if (failOnExceed && maxStatements > 0 && count > maxStatements) {
+                throw new QueryBudgetExceededException(count, maxStatements);
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.ratelimit;
+
+import com.acme.dozent.RateLimitProps;
+import com.acme.dozent.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ProblemDetail;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import static org.springframework.boot.autoconfigure.security.SecurityProperties.DEFAULT_FILTER_ORDER;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
+
+/**
+ * Servlet-Filter nach Spring Security, der die Requests je Benutzer bzw. IP-Adresse und je {@link RouteClass} durch
+ * einen {@link TokenBucket} begrenzt. Die Header "RateLimit-*" gemäß dem IETF-Draft "RateLimit header fields for
+ * HTTP" werden bei jedem begrenzten Request gesetzt, bei Überschreitung gibt es den Statuscode 429 mit ProblemDetail.
+ * Ohne JWT wird die IP-Adresse des Clients verwendet, die hinter dem Ingress durch "server.forward-headers-strategy"
+ * aus dem Header "X-Forwarded-For" stammt.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Order(DEFAULT_FILTER_ORDER + 2)
+@Slf4j
+class RateLimitFilter extends OncePerRequestFilter {
+    /**
+     * Header mit dem Limit pro Zeitfenster.
+     */
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+
+    /**
+     * Header mit der Anzahl der verbleibenden Requests.
+     */
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+
+    /**
+     * Header mit den Sekunden, bis das Limit wieder vollständig verfügbar ist.
+     */
+    static final String RESET_HEADER = "RateLimit-Reset";
+
+    /**
+     * Header mit Limit und Zeitfenster, z.B. "120;w=60".
+     */
+    static final String POLICY_HEADER = "RateLimit-Policy";
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final URI PROBLEM_TYPE = URI.create("/problem/rateLimit");
+
+    private final RateLimitProps props;
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, TokenBucket> buckets;
+    private final Map<RouteClass, Counter> rejected = new EnumMap<>(RouteClass.class);
+
+    RateLimitFilter(
+        final RateLimitProps props,
+        final JwtService jwtService,
+        final ObjectMapper objectMapper,
+        final MeterRegistry meterRegistry
+    ) {
+        this.props = props;
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+        buckets = Caffeine.newBuilder()
+            .maximumSize(props.maxClients())
+            .expireAfterAccess(props.idleTimeout())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "dozent.ratelimit");
+        for (final var route : RouteClass.values()) {
+            rejected.put(route, Counter.builder("dozent.ratelimit.rejected")
+                .description("Abgewiesene Requests wegen Ueberschreitung des Limits")
+                .tag("route", route.getValue())
+                .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull final HttpServletRequest request) {
+        return !props.enabled();
+    }
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull final HttpServletRequest request,
+        @NonNull final HttpServletResponse response,
+        @NonNull final FilterChain filterChain
+    ) throws ServletException, IOException {
+        final var route = RouteClass.of(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final var limit = route.perMinute(props);
+        final var now = System.nanoTime();
+        final var bucket = buckets.get(new Key(route, clientId(request)), _ -> new TokenBucket(limit, WINDOW, now));
+        final var decision = bucket.tryConsume(now);
+        response.setHeader(POLICY_HEADER, bucket.getCapacity() + ";w=" + WINDOW.toSeconds());
+        response.setHeader(LIMIT_HEADER, String.valueOf(bucket.getCapacity()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        response.setHeader(RESET_HEADER, String.valueOf(toSeconds(decision.resetNanos())));
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        log.debug("doFilterInternal: Limit ueberschritten, route={} uri={}", route, request.getRequestURI());
+        rejected.get(route).increment();
+        response.setHeader(RETRY_AFTER, String.valueOf(toSeconds(decision.retryAfterNanos())));
+        response.setStatus(TOO_MANY_REQUESTS.value());
+        response.setContentType(APPLICATION_PROBLEM_JSON_VALUE);
+        final var problemDetail = ProblemDetail.forStatusAndDetail(
+            TOO_MANY_REQUESTS,
+            "Limit von " + limit + " Requests pro Minute ueberschritten"
+        );
+        problemDetail.setType(PROBLEM_TYPE);
+        problemDetail.setInstance(URI.create(request.getRequestURI()));
+        objectMapper.writeValue(response.getOutputStream(), problemDetail);
+    }
+
+    // Benutzername aus dem JWT, sonst die IP-Adresse, z.B. bei POST /auth/login; hinter dem Ingress ersetzt Tomcat die
+    // IP-Adresse des Proxy durch die Client-IP aus "X-Forwarded-For"
+    private String clientId(final HttpServletRequest request) {
+        final var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
+            return "user:" + jwtService.getUsername(jwt);
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long toSeconds(final long nanos) {
+        return Math.max((nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND, 0);
+    }
+
+    private record Key(RouteClass route, String client) {
+    }
+}
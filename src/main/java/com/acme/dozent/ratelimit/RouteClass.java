@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.ratelimit;
+
+import com.acme.dozent.RateLimitProps;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.regex.Pattern;
+import static com.acme.dozent.controller.DozentGetController.ID_PATTERN;
+import static com.acme.dozent.controller.DozentGetController.LOOKUP_PATH;
+import static com.acme.dozent.controller.DozentGetController.REST_PATH;
+import static com.acme.dozent.security.AuthController.AUTH_PATH;
+
+/**
+ * Routenklassen mit einem eigenen Limit.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+enum RouteClass {
+    /**
+     * Suchen, z.B. GET /rest?name=..., GET /rest/name/{prefix}, POST /rest/lookup und GraphQL.
+     */
+    SEARCH("search"),
+
+    /**
+     * GET /rest/{id}.
+     */
+    BY_ID("by-id"),
+
+    /**
+     * POST, PUT, PATCH und DELETE unter /rest außer POST /rest/lookup.
+     */
+    WRITE("write"),
+
+    /**
+     * POST /auth/login.
+     */
+    LOGIN("login");
+
+    private static final Pattern ID_URI = Pattern.compile(REST_PATH + '/' + ID_PATTERN);
+    private static final String LOGIN_PATH = AUTH_PATH + "/login";
+    private static final String GRAPHQL_PATH = "/graphql";
+    private static final String LOOKUP_URI = REST_PATH + LOOKUP_PATH;
+
+    private final String value;
+
+    RouteClass(final String value) {
+        this.value = value;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    /**
+     * Das Limit pro Minute gemäß der Konfiguration.
+     *
+     * @param props Die Konfiguration
+     * @return Anzahl der Requests pro Minute
+     */
+    int perMinute(final RateLimitProps props) {
+        return switch (this) {
+            case SEARCH -> props.searchPerMinute();
+            case BY_ID -> props.byIdPerMinute();
+            case WRITE -> props.writePerMinute();
+            case LOGIN -> props.loginPerMinute();
+        };
+    }
+
+    /**
+     * Die Routenklasse zu einem Request ermitteln.
+     *
+     * @param request Der Request
+     * @return Die Routenklasse oder null, falls der Request nicht begrenzt wird, z.B. bei Actuator
+     */
+    @SuppressWarnings("ReturnCount")
+    static RouteClass of(final HttpServletRequest request) {
+        final var method = request.getMethod();
+        final var path = request.getRequestURI();
+        if (LOGIN_PATH.equals(path)) {
+            return "POST".equals(method) ? LOGIN : null;
+        }
+        if (GRAPHQL_PATH.equals(path) || LOOKUP_URI.equals(path)) {
+            return SEARCH;
+        }
+        if (!path.startsWith(REST_PATH) || "OPTIONS".equals(method)) {
+            return null;
+        }
+        if (!"GET".equals(method)) {
+            return WRITE;
+        }
+        return ID_URI.matcher(path).matches() ? BY_ID : SEARCH;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-freier Token-Bucket nach dem "Generic Cell Rate Algorithm": statt Anzahl der Tokens und Zeitpunkt des letzten
+ * Auffüllens wird nur der theoretische Zeitpunkt gespeichert, zu dem der Bucket wieder leer wäre. Dadurch genügt ein
+ * einziger AtomicLong mit compareAndSet.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+final class TokenBucket {
+    private final int capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Einen vollen Bucket erstellen.
+     *
+     * @param capacity Anzahl der Tokens im vollen Bucket bzw. pro Zeitraum
+     * @param period Zeitraum, in dem der Bucket vollständig aufgefüllt wird
+     * @param now Aktueller Zeitpunkt gemäß System.nanoTime()
+     */
+    TokenBucket(final int capacity, final Duration period, final long now) {
+        this.capacity = capacity;
+        intervalNanos = Math.max(period.toNanos() / capacity, 1);
+        burstNanos = intervalNanos * capacity;
+        theoreticalArrival = new AtomicLong(now);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Ein Token entnehmen, falls vorhanden.
+     *
+     * @param now Aktueller Zeitpunkt gemäß System.nanoTime()
+     * @return Die Entscheidung mit den Werten für die Header "RateLimit-*"
+     */
+    Decision tryConsume(final long now) {
+        while (true) {
+            final var current = theoreticalArrival.get();
+            final var start = Math.max(current, now);
+            final var next = start + intervalNanos;
+            final var allowAt = next - burstNanos;
+            if (now < allowAt) {
+                return new Decision(false, 0, allowAt - now, start - now);
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return new Decision(true, (now - allowAt) / intervalNanos, 0, next - now);
+            }
+        }
+    }
+
+    /**
+     * Entscheidung zu einem Request.
+     *
+     * @param allowed true, falls ein Token entnommen wurde
+     * @param remaining Anzahl der verbleibenden Tokens
+     * @param retryAfterNanos Wartezeit bis zum nächsten Token, falls kein Token entnommen wurde
+     * @param resetNanos Dauer, bis der Bucket wieder voll ist
+     */
+    record Decision(boolean allowed, long remaining, long retryAfterNanos, long resetNanos) {
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.replica;
+
+import com.acme.dozent.ReplicaProps;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Konsistenz-Token für "Read Your Writes": Nach einem Schreibzugriff erhält der Client den Zeitpunkt des
+ * Schreibzugriffs mit einer Signatur durch HMAC-SHA256 im Response-Header. Sendet der Client diesen Header bei einem
+ * lesenden Request mit, wird innerhalb der konfigurierten Zeitspanne die primäre DB statt einer Replica verwendet.
+ * Durch die Signatur kann ein Client seine Lesezugriffe nicht mit einem selbst erzeugten Zeitpunkt in der Zukunft an
+ * die primäre DB binden.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+public final class ConsistencyToken {
+    /**
+     * Name des Headers für das Konsistenz-Token in Request und Response.
+     */
+    public static final String HEADER = "X-Consistency-Token";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SECRET_LENGTH = 32;
+    private static final char SEPARATOR = '.';
+    // geringfuegig abweichende Uhren der Pods
+    private static final long MAX_CLOCK_SKEW_MILLIS = 1000;
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final SecretKeySpec key;
+
+    ConsistencyToken(final ReplicaProps props) {
+        final var secret = props.tokenSecret();
+        final byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            log.warn("Kein app.replica.token-secret: Konsistenz-Token gelten nur fuer diesen Pod");
+            keyBytes = new byte[SECRET_LENGTH];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    /**
+     * Ein signiertes Konsistenz-Token nach einem erfolgreichen Schreibzugriff erzeugen.
+     *
+     * @return Das Konsistenz-Token
+     */
+    public String create() {
+        final var writtenAt = Long.toString(System.currentTimeMillis());
+        return writtenAt + SEPARATOR + sign(writtenAt);
+    }
+
+    /**
+     * Die Signatur eines Konsistenz-Tokens prüfen.
+     *
+     * @param token Das Konsistenz-Token aus dem Request-Header
+     * @return Der Zeitpunkt des Schreibzugriffs oder -1, falls das Token ungültig ist oder in der Zukunft liegt
+     */
+    long verify(final String token) {
+        final var separator = token.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            return -1;
+        }
+        final var writtenAt = token.substring(0, separator);
+        final var signature = token.substring(separator + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(sign(writtenAt).getBytes(StandardCharsets.US_ASCII), signature)) {
+            return -1;
+        }
+        final long millis;
+        try {
+            millis = Long.parseLong(writtenAt);
+        } catch (final NumberFormatException ex) {
+            return -1;
+        }
+        return millis - System.currentTimeMillis() > MAX_CLOCK_SKEW_MILLIS ? -1 : millis;
+    }
+
+    private String sign(final String writtenAt) {
+        try {
+            // Mac ist nicht thread-safe
+            final var mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            final var signature = mac.doFinal(writtenAt.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (final GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Abfrage, ob der aktuelle Request wegen eines Konsistenz-Tokens die primäre DB verwenden muss.
+     *
+     * @return true, falls die primäre DB verwendet werden muss
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    /**
+     * Die Anforderung der primären DB an den aktuellen Thread binden, z.B. an einen Worker-Thread bei asynchroner
+     * Verarbeitung.
+     *
+     * @param primaryRequired true, falls die primäre DB verwendet werden muss
+     */
+    public static void bind(final boolean primaryRequired) {
+        if (primaryRequired) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
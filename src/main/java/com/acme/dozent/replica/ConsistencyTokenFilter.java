@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.replica;
+
+import com.acme.dozent.ReplicaProps;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Servlet-Filter, der bei einem aktuellen Konsistenz-Token im Request die primäre DB für lesende Transaktionen
+ * erzwingt.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class ConsistencyTokenFilter extends OncePerRequestFilter {
+    private final ReplicaProps props;
+    private final ConsistencyToken consistencyToken;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull final HttpServletRequest request) {
+        return props.urls().isEmpty() || request.getHeader(ConsistencyToken.HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull final HttpServletRequest request,
+        @NonNull final HttpServletResponse response,
+        @NonNull final FilterChain filterChain
+    ) throws ServletException, IOException {
+        final var token = request.getHeader(ConsistencyToken.HEADER);
+        final var writtenAt = consistencyToken.verify(token.trim());
+        if (writtenAt < 0) {
+            log.debug("doFilterInternal: ungueltiges Konsistenz-Token {}", token);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (System.currentTimeMillis() - writtenAt > props.readYourWrites().toMillis()) {
+            // die Replicas sind inzwischen aktuell
+            filterChain.doFilter(request, response);
+            return;
+        }
+        log.trace("doFilterInternal: primaere DB wegen Konsistenz-Token {}", token);
+        ConsistencyToken.bind(true);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ConsistencyToken.clear();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.replica;
+
+import com.acme.dozent.ReplicaProps;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.lang.NonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * DataSource für lesende Transaktionen, die die Connections reihum von den gesunden Replicas holt. Eine Replica, die
+ * keine Connection liefert oder die Überprüfung nicht besteht, wird bis zur nächsten erfolgreichen Überprüfung
+ * ausgelassen. Ohne gesunde Replica bzw. bei einem aktuellen Konsistenz-Token wird die primäre DB verwendet.
+ * Für einen CRaC-Checkpoint werden die Pools der Replicas geschlossen und nach dem Restore neu erstellt.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Slf4j
+final class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource primary;
+    private final ReplicaProps props;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthCheck;
+    private volatile boolean suspended;
+
+    ReplicaDataSource(final DataSource primary, final ReplicaProps props) {
+        this.primary = primary;
+        this.props = props;
+        final var urls = props.urls();
+        replicas = IntStream.range(0, urls.size())
+            .mapToObj(index -> new Replica(urls.get(index), index, createPool(primary, props, urls.get(index), index)))
+            .toList();
+        healthCheck = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("replica-health").factory());
+        final var interval = props.healthCheckInterval().toMillis();
+        healthCheck.scheduleWithFixedDelay(this::checkHealth, interval, interval, MILLISECONDS);
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        if (suspended || ConsistencyToken.isPrimaryRequired()) {
+            return primary.getConnection();
+        }
+        final var size = replicas.size();
+        final var start = Math.floorMod(next.getAndIncrement(), size);
+        for (var i = 0; i < size; i++) {
+            final var replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.pool.getConnection();
+            } catch (final SQLException ex) {
+                replica.eject(ex);
+            }
+        }
+        log.debug("getConnection: keine gesunde Replica, primaere DB wird verwendet");
+        return primary.getConnection();
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Die Replicas verwenden den konfigurierten Benutzernamen");
+    }
+
+    /**
+     * Abfrage, wie viele Replicas aktuell verwendet werden.
+     *
+     * @return Anzahl der gesunden Replicas
+     */
+    int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    /**
+     * Die Pools der Replicas vor einem Checkpoint schließen, damit keine offenen Sockets gesichert werden.
+     */
+    void suspend() {
+        suspended = true;
+        replicas.forEach(replica -> replica.pool.close());
+        log.debug("suspend: Pools der Replicas geschlossen");
+    }
+
+    /**
+     * Die Pools der Replicas nach einem Restore neu erstellen.
+     */
+    void resume() {
+        if (!suspended) {
+            return;
+        }
+        replicas.forEach(replica -> replica.pool = createPool(primary, props, replica.url, replica.index));
+        suspended = false;
+        log.debug("resume: Pools der Replicas neu erstellt");
+    }
+
+    @Override
+    public void close() {
+        healthCheck.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private void checkHealth() {
+        if (suspended) {
+            return;
+        }
+        replicas.forEach(replica -> {
+            try (var connection = replica.pool.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.readmit();
+                } else {
+                    replica.eject(null);
+                }
+            } catch (final SQLException ex) {
+                replica.eject(ex);
+            }
+        });
+    }
+
+    private static HikariDataSource createPool(
+        final DataSource primary,
+        final ReplicaProps props,
+        final String url,
+        final int index
+    ) {
+        var username = props.username();
+        var password = props.password();
+        if (username == null && primary instanceof HikariDataSource hikari) {
+            username = hikari.getUsername();
+            password = hikari.getPassword();
+        }
+        final var pool = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+        pool.setPoolName("replica-" + index);
+        pool.setMaximumPoolSize(props.maxPoolSize());
+        pool.setConnectionTimeout(props.connectionTimeout().toMillis());
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    private static final class Replica {
+        private final String url;
+        private final int index;
+        private volatile HikariDataSource pool;
+        private volatile boolean healthy = true;
+
+        Replica(final String url, final int index, final HikariDataSource pool) {
+            this.url = url;
+            this.index = index;
+            this.pool = pool;
+        }
+
+        void eject(final SQLException ex) {
+            if (healthy) {
+                healthy = false;
+                final var reason = ex == null ? "ungueltige Connection" : ex.getMessage();
+                log.warn("Replica {} wird nicht mehr verwendet: {}", url, reason);
+            }
+        }
+
+        void readmit() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Replica {} wird wieder verwendet", url);
+            }
+        }
+    }
+}
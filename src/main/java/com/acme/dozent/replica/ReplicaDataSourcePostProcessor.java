@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.replica;
+
+import com.acme.dozent.ReplicaProps;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * BeanPostProcessor, der die primäre DataSource durch {@link ReplicaRoutingDataSource} ummantelt, falls Replicas
+ * konfiguriert sind. Er wird vor dem BeanPostProcessor für das Profiling angewendet, damit auch die Connections der
+ * Replicas erfasst werden. Als Lifecycle-Bean schließt er die Pools der Replicas bei einem CRaC-Checkpoint und
+ * erstellt sie beim Restore neu; den Pool der primären DB behandelt Spring Boot selbst.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+class ReplicaDataSourcePostProcessor implements BeanPostProcessor, Ordered, MeterBinder, SmartLifecycle {
+    private final ObjectProvider<ReplicaProps> props;
+    private volatile ReplicaDataSource replicas;
+    private volatile boolean running;
+
+    ReplicaDataSourcePostProcessor(final ObjectProvider<ReplicaProps> props) {
+        this.props = props;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull final Object bean, @NonNull final String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ReplicaRoutingDataSource) {
+            return bean;
+        }
+        final var replicaProps = props.getObject();
+        if (replicaProps.urls().isEmpty()) {
+            return bean;
+        }
+        log.info("postProcessAfterInitialization: Read-Replicas {}", replicaProps.urls());
+        final var replicaDataSource = new ReplicaDataSource(dataSource, replicaProps);
+        replicas = replicaDataSource;
+        return new ReplicaRoutingDataSource(dataSource, replicaDataSource);
+    }
+
+    @Override
+    public void bindTo(@NonNull final MeterRegistry registry) {
+        Gauge.builder("dozent.replica.healthy", this, postProcessor -> {
+                final var replicaDataSource = postProcessor.replicas;
+                return replicaDataSource == null ? 0 : replicaDataSource.healthyReplicas();
+            })
+            .description("Anzahl der gesunden Read-Replicas")
+            .register(registry);
+    }
+
+    @Override
+    public void start() {
+        final var replicaDataSource = replicas;
+        if (replicaDataSource != null) {
+            replicaDataSource.resume();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        final var replicaDataSource = replicas;
+        if (replicaDataSource != null) {
+            replicaDataSource.suspend();
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // nach dem Webserver stoppen und vor dem Webserver starten
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE - 1;
+    }
+}
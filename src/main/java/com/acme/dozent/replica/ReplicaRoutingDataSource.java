@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.replica;
+
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * DataSource, die eine Connection erst bei der ersten SQL-Anweisung holt: Ist die Connection bis dahin als read-only
+ * markiert, z.B. durch <code>@Transactional(readOnly = true)</code>, stammt sie von einer Replica, sonst von der
+ * primären DB.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Slf4j
+final class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private final ReplicaDataSource replicas;
+
+    ReplicaRoutingDataSource(final DataSource primary, final ReplicaDataSource replicas) {
+        super(primary);
+        this.replicas = replicas;
+        setReadOnlyDataSource(replicas);
+    }
+
+    /**
+     * Die Pools der Replicas und der primären DB schließen.
+     *
+     * @throws Exception falls die primäre DB nicht geschlossen werden kann
+     */
+    @Override
+    @SuppressWarnings("IllegalThrows")
+    public void close() throws Exception {
+        log.debug("close");
+        replicas.close();
+        if (getTargetDataSource() instanceof AutoCloseable primary) {
+            primary.close();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.repository;
+
+import com.acme.dozent.entity.Adresse;
+import com.acme.dozent.entity.Dozent;
+import com.acme.dozent.entity.GeschlechtType;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Nicht-blockierendes Repository mit R2DBC für lesende Zugriffe, z.B. um viele Dozenten als Stream auszuliefern,
+ * ohne eine JDBC-Connection oder einen Thread zu blockieren. Die Dozenten werden einschließlich Adresse, aber ohne
+ * Kurse gelesen.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Repository
+@Slf4j
+public class DozentReactiveRepository {
+    private static final String SELECT = """
+        SELECT   d.id, d.version, d.name, d.email, d.geburtsdatum, d.homepage, d.geschlecht, d.username,
+                 a.id AS adresse_id, a.plz, a.ort
+        FROM     dozent d
+        JOIN     adresse a ON a.id = d.adresse_id
+        """;
+
+    private final DatabaseClient client;
+
+    DozentReactiveRepository(final ConnectionFactory connectionFactory) {
+        client = DatabaseClient.create(connectionFactory);
+    }
+
+    /**
+     * Alle Dozenten sortiert nach dem Namen lesen.
+     *
+     * @return Die Dozenten als Flux
+     */
+    public Flux<Dozent> findAll() {
+        log.debug("findAll");
+        return client.sql(SELECT + "ORDER BY d.name")
+            .map(DozentReactiveRepository::toDozent)
+            .all();
+    }
+
+    /**
+     * Dozenten anhand des (Teil-) Namens sortiert nach dem Namen lesen.
+     *
+     * @param name Der (Teil-) Name der gesuchten Dozenten
+     * @return Die gefundenen Dozenten als Flux
+     */
+    public Flux<Dozent> findByName(final String name) {
+        log.debug("findByName: name={}", name);
+        return client.sql(SELECT + "WHERE lower(d.name) LIKE concat('%', lower(:name), '%') ORDER BY d.name")
+            .bind("name", name)
+            .map(DozentReactiveRepository::toDozent)
+            .all();
+    }
+
+    private static Dozent toDozent(final Readable row) {
+        final var adresse = Adresse.builder()
+            .id(row.get("adresse_id", UUID.class))
+            .plz(row.get("plz", String.class))
+            .ort(row.get("ort", String.class))
+            .build();
+        final var version = row.get("version", Integer.class);
+        final var geschlecht = row.get("geschlecht", String.class);
+        return Dozent.builder()
+            .id(row.get("id", UUID.class))
+            .version(version == null ? 0 : version)
+            .name(row.get("name", String.class))
+            .email(row.get("email", String.class))
+            .geburtsdatum(row.get("geburtsdatum", LocalDate.class))
+            .homepage(toUrl(row.get("homepage", String.class)))
+            .geschlecht(geschlecht == null ? null : GeschlechtType.valueOf(geschlecht))
+            .username(row.get("username", String.class))
+            .adresse(adresse)
+            .build();
+    }
+
+    private static URL toUrl(final String homepage) {
+        if (homepage == null) {
+            return null;
+        }
+        try {
+            return URI.create(homepage).toURL();
+        } catch (final MalformedURLException | IllegalArgumentException ex) {
+            log.warn("toUrl: ungueltige Homepage {}", homepage);
+            return null;
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package com.acme.dozent.repository;
 
 import com.acme.dozent.entity.Dozent;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 import static com.acme.dozent.entity.Dozent.ADRESSE_KURSE_GRAPH;
 import static com.acme.dozent.entity.Dozent.ADRESSE_GRAPH;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 
 /**
@@ -51,6 +56,34 @@ public interface DozentRepository extends JpaRepository<Dozent,
     @NonNull
     Optional<Dozent> findByIdFetchKurse(UUID id);
 
+    /**
+     * Dozenten einschließlich Adresse zu mehreren IDs mit einer SQL-Anweisung suchen.
+     *
+     * @param ids IDs der Dozenten
+     * @return Die gefundenen Dozenten in beliebiger Reihenfolge
+     */
+    @Query("""
+        SELECT k
+        FROM   #{#entityName} k
+        WHERE  k.id IN :ids
+        """)
+    @EntityGraph(ADRESSE_GRAPH)
+    List<Dozent> findAllByIds(Collection<UUID> ids);
+
+    /**
+     * Dozenten einschließlich Kursen zu mehreren IDs mit einer SQL-Anweisung suchen.
+     *
+     * @param ids IDs der Dozenten
+     * @return Die gefundenen Dozenten
+     */
+    @Query("""
+        SELECT DISTINCT k
+        FROM     #{#entityName} k
+        WHERE    k.id IN :ids
+        """)
+    @EntityGraph(ADRESSE_KURSE_GRAPH)
+    List<Dozent> findAllByIdFetchKurse(Collection<UUID> ids);
+
     /**
      * Dozent zu gegebener Emailadresse aus der DB ermitteln.
      *
@@ -74,6 +107,19 @@ public interface DozentRepository extends JpaRepository<Dozent,
     @SuppressWarnings("BooleanMethodNameMustStartWithQuestion")
     boolean existsByEmail(String email);
 
+    /**
+     * Alle Emailadressen in Kleinbuchstaben blockweise lesen, z.B. für einen Bloom-Filter. Der Stream muss innerhalb
+     * einer Transaktion verarbeitet und geschlossen werden.
+     *
+     * @return Die Emailadressen in Kleinbuchstaben
+     */
+    @Query("""
+        SELECT lower(k.email)
+        FROM   #{#entityName} k
+        """)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamEmails();
+
     /**
      * Dozent anhand des Namens suchen.
      *
@@ -89,6 +135,37 @@ public interface DozentRepository extends JpaRepository<Dozent,
     @EntityGraph(ADRESSE_GRAPH)
     List<Dozent> findByName(CharSequence name);
 
+    /**
+     * Alle Dozenten einschließlich Adresse blockweise lesen, z.B. um sie beim Lesen zu serialisieren. Der Stream muss
+     * innerhalb einer Transaktion verarbeitet und geschlossen werden.
+     *
+     * @return Die Dozenten
+     */
+    @Query("""
+        SELECT k
+        FROM   #{#entityName} k
+        """)
+    @EntityGraph(ADRESSE_GRAPH)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    Stream<Dozent> streamAll();
+
+    /**
+     * Dozenten anhand des Namens blockweise lesen. Der Stream muss innerhalb einer Transaktion verarbeitet und
+     * geschlossen werden.
+     *
+     * @param name Der (Teil-) Name der gesuchten Dozenten
+     * @return Die gefundenen Dozenten
+     */
+    @Query("""
+        SELECT   k
+        FROM     #{#entityName} k
+        WHERE    lower(k.name) LIKE concat('%', lower(:name), '%')
+        ORDER BY k.name
+        """)
+    @EntityGraph(ADRESSE_GRAPH)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    Stream<Dozent> streamByName(CharSequence name);
+
     /**
      * Abfrage, welche Namen es zu einem Präfix gibt.
      *
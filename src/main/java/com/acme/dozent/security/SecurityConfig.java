@@ -1,5 +1,7 @@
 package com.acme.dozent.security;
 
+import com.acme.dozent.monitoring.QueryCacheEndpoint;
+import com.acme.dozent.monitoring.SlowQueryEndpoint;
 import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.ResourceServerExpressionInterceptUrlRegistryPostProcessor;
 import java.util.Map;
 import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
@@ -18,8 +20,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.password.HaveIBeenPwnedRestApiPasswordChecker;
+import static com.acme.dozent.controller.DozentGetController.LOOKUP_PATH;
 import static com.acme.dozent.controller.DozentGetController.NAME_PATH;
 import static com.acme.dozent.controller.DozentGetController.REST_PATH;
+import static com.acme.dozent.controller.DozentStreamController.STREAM_PATH;
 import static com.acme.dozent.security.AuthController.AUTH_PATH;
 import static com.acme.dozent.security.Rolle.ADMIN;
 import static com.acme.dozent.security.Rolle.USER;
@@ -108,14 +112,16 @@ public interface SecurityConfig {
                     .requestMatchers(
                         GET,
                         REST_PATH + NAME_PATH + "/*",
+                        REST_PATH + STREAM_PATH,
                         "/swagger-ui.html"
                     ).hasRole(ADMIN.name())
                     .requestMatchers(GET, restPathDozentId).hasAnyRole(ADMIN.name(), USER.name())
+                    .requestMatchers(POST, REST_PATH + LOOKUP_PATH).hasAnyRole(ADMIN.name(), USER.name())
                     .requestMatchers(PUT, restPathDozentId).hasRole(ADMIN.name())
                     .requestMatchers(PATCH, restPathDozentId).hasRole(ADMIN.name())
                     .requestMatchers(DELETE, restPathDozentId).hasRole(ADMIN.name())
 
-                    .requestMatchers(POST, "/dev/db_populate").hasRole(ADMIN.name())
+                    .requestMatchers(POST, "/dev/db_populate", "/dev/db_generate").hasRole(ADMIN.name())
 
                     .requestMatchers(POST, REST_PATH, "/graphql", AUTH_PATH + "/login").permitAll()
 
@@ -125,6 +131,10 @@ public interface SecurityConfig {
                         // Actuator: Prometheus fuer Monitoring
                         EndpointRequest.to(PrometheusScrapeEndpoint.class)
                     ).permitAll()
+                    // Actuator: langsamste und haeufigste SQL-Anweisungen
+                    .requestMatchers(EndpointRequest.to(SlowQueryEndpoint.class)).hasRole(ADMIN.name())
+                    // Actuator: Cache der Suchresultate abfragen und leeren
+                    .requestMatchers(EndpointRequest.to(QueryCacheEndpoint.class)).hasRole(ADMIN.name())
                     // OpenAPI bzw. Swagger UI und GraphiQL
                     .requestMatchers(GET, "/v3/api-docs.yaml", "/v3/api-docs", "/graphiql").permitAll()
                     .requestMatchers("/error", "/error/**").permitAll()
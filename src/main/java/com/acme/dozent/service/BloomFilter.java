@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-freier Bloom-Filter für Strings mit "double hashing" nach Kirsch und Mitzenmacher: aus einem 64-Bit-Hash werden
+ * die k Bit-Positionen abgeleitet. Ein Ergebnis false bei {@link #mightContain(String)} ist sicher, true kann falsch
+ * positiv sein.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+final class BloomFilter {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * Einen leeren Bloom-Filter für die erwartete Anzahl an Elementen erstellen.
+     *
+     * @param expected Erwartete Anzahl an Elementen
+     * @param falsePositiveRate Gewünschte Rate falsch positiver Ergebnisse
+     */
+    BloomFilter(final long expected, final double falsePositiveRate) {
+        final var n = Math.max(expected, 1);
+        final var m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2));
+        words = new AtomicLongArray(Math.toIntExact(Math.max((m + Long.SIZE - 1) / Long.SIZE, 1)));
+        bits = (long) words.length() * Long.SIZE;
+        hashes = Math.max((int) Math.round((double) bits / n * LN2), 1);
+    }
+
+    /**
+     * Ein Element hinzufügen.
+     *
+     * @param value Das Element
+     */
+    void put(final String value) {
+        final var hash = hash(value);
+        final var h1 = (int) hash;
+        final var h2 = (int) (hash >>> Integer.SIZE);
+        for (var i = 1; i <= hashes; i++) {
+            final var index = index(h1 + i * h2);
+            final var mask = 1L << index;
+            final var word = (int) (index >>> 6);
+            var current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * Abfrage, ob ein Element enthalten sein könnte.
+     *
+     * @param value Das Element
+     * @return false, falls das Element sicher nicht enthalten ist
+     */
+    boolean mightContain(final String value) {
+        final var hash = hash(value);
+        final var h1 = (int) hash;
+        final var h2 = (int) (hash >>> Integer.SIZE);
+        for (var i = 1; i <= hashes; i++) {
+            final var index = index(h1 + i * h2);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(final int combined) {
+        return (combined & Integer.MAX_VALUE) % bits;
+    }
+
+    // FNV-1a ueber UTF-8 mit Finalisierung von MurmurHash3, damit auch die oberen 32 Bit gut verteilt sind
+    private static long hash(final String value) {
+        var hash = FNV_OFFSET;
+        for (final var b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,20 +1,40 @@
 package com.acme.dozent.service;
 
+import com.acme.dozent.admission.Admission;
+import com.acme.dozent.admission.ManualAdmission;
+import com.acme.dozent.deadline.Deadline;
 import com.acme.dozent.entity.Dozent;
+import com.acme.dozent.entity.Kurs;
 import com.acme.dozent.repository.SpecificationBuilder;
 import com.acme.dozent.repository.DozentRepository;
 import com.acme.dozent.security.Rolle;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import static com.acme.dozent.security.Rolle.ADMIN;
+import static org.springframework.transaction.annotation.Propagation.SUPPORTS;
 
 /**
  * Anwendungslogik für Dozent.
@@ -24,11 +44,56 @@ import static com.acme.dozent.security.Rolle.ADMIN;
  */
 @Service
 @Transactional(readOnly = true)
-@RequiredArgsConstructor
 @Slf4j
 public class DozentReadService {
+    private static final String FIND = "find";
+    private static final String NAMEN = "namen";
+
     private final DozentRepository repo;
+    private final EntityManager entityManager;
     private final SpecificationBuilder specificationBuilder;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SingleFlight<IdKey, Optional<Dozent>> findByIdFlight;
+    private final SingleFlight<Map<String, List<String>>, List<Dozent>> findFlight;
+    private final QueryResultCache queryCache;
+    private final NegativeLookupCache negativeLookupCache;
+    private final Admission admission;
+
+    /**
+     * Konstruktor mit den Abfragen, die bei gleichzeitigen, identischen Aufrufen zusammengefasst werden. Die
+     * Transaktion und die Zulassung für findById() und find() beginnen erst beim Ausführen der gemeinsamen Abfrage,
+     * damit wartende Aufrufer weder eine Connection noch eine Zulassung belegen.
+     *
+     * @param repo Repository für Dozent
+     * @param entityManager EntityManager, um gelesene Dozenten beim Streaming zu entfernen
+     * @param specificationBuilder Builder für Suchkriterien
+     * @param transactionManager TransactionManager für die gemeinsamen Abfragen
+     * @param meterRegistry Registry für die Metriken
+     * @param queryCache Cache für die IDs bzw. Namen als Resultate von Suchen
+     * @param negativeLookupCache Cache für IDs ohne Dozent
+     * @param admission Zulassung für die gemeinsamen Abfragen und für Streams
+     */
+    public DozentReadService(
+        final DozentRepository repo,
+        final EntityManager entityManager,
+        final SpecificationBuilder specificationBuilder,
+        final PlatformTransactionManager transactionManager,
+        final MeterRegistry meterRegistry,
+        final QueryResultCache queryCache,
+        final NegativeLookupCache negativeLookupCache,
+        final Admission admission
+    ) {
+        this.repo = repo;
+        this.entityManager = entityManager;
+        this.specificationBuilder = specificationBuilder;
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        findByIdFlight = new SingleFlight<>("find-by-id", meterRegistry);
+        findFlight = new SingleFlight<>(FIND, meterRegistry);
+        this.queryCache = queryCache;
+        this.negativeLookupCache = negativeLookupCache;
+        this.admission = admission;
+    }
 
     /**
      * Eine Dozent anhand ihrer ID suchen.
@@ -42,6 +107,8 @@ public class DozentReadService {
      * @throws AccessForbiddenException Falls die erforderlichen Rollen nicht gegeben sind
      */
     @Observed(name = "find-by-id")
+    @Transactional(readOnly = true, propagation = SUPPORTS)
+    @ManualAdmission
     public @NonNull Dozent findById(
         final UUID id,
         final String username,
@@ -50,7 +117,18 @@ public class DozentReadService {
     ) {
         log.debug("findById: id={}, username={}, rollen={}", id, username, rollen);
 
-        final var dozentOptional = fetchKurse ? repo.findByIdFetchKurse(id) : repo.findById(id);
+        // die Abfrage wird gemeinsam ausgefuehrt, die Pruefung von Benutzername und Rollen je Aufrufer
+        // kuerzlich nicht gefundene IDs ohne DB-Zugriff
+        final var dozentOptional = negativeLookupCache.isMissing(id)
+            ? Optional.<Dozent>empty()
+            : coalesce(
+                findByIdFlight,
+                new IdKey(id, fetchKurse),
+                () -> fetchKurse ? repo.findByIdFetchKurse(id) : repo.findById(id)
+            );
+        if (dozentOptional.isEmpty()) {
+            negativeLookupCache.addMissing(id);
+        }
         final var dozent = dozentOptional.orElse(null);
         log.trace("findById: dozent={}", dozent);
 
@@ -75,6 +153,43 @@ public class DozentReadService {
     }
 
 
+    /**
+     * Dozenten zu mehreren IDs mit einer SQL-Anweisung suchen. Wie bei findById() darf ein Benutzer ohne die Rolle
+     * ADMIN nur die eigenen Daten abfragen; für ihn führt auch eine nicht gefundene ID zu AccessForbiddenException.
+     *
+     * @param ids Die IDs der gesuchten Dozenten
+     * @param username Benutzername aus einem JWT
+     * @param rollen Rollen als Liste von Enums
+     * @return Die gefundenen Dozenten in der Reihenfolge der IDs ohne Duplikate
+     * @throws AccessForbiddenException Falls die erforderlichen Rollen nicht gegeben sind
+     */
+    public @NonNull List<Dozent> findByIds(
+        @NonNull final Collection<UUID> ids,
+        final String username,
+        final List<Rolle> rollen
+    ) {
+        log.debug("findByIds: ids={}, username={}, rollen={}", ids, username, rollen);
+        final var distinctIds = new LinkedHashSet<>(ids);
+        final var gefunden = repo.findAllByIds(distinctIds)
+            .stream()
+            .collect(Collectors.toMap(Dozent::getId, Function.identity()));
+
+        final var isAdmin = rollen.contains(ADMIN);
+        final var dozenten = new ArrayList<Dozent>(gefunden.size());
+        for (final var id : distinctIds) {
+            final var dozent = gefunden.get(id);
+            if (dozent != null && dozent.getUsername().contentEquals(username)) {
+                dozenten.add(dozent);
+            } else if (!isAdmin) {
+                throw new AccessForbiddenException(rollen);
+            } else if (dozent != null) {
+                dozenten.add(dozent);
+            }
+        }
+        log.debug("findByIds: {} von {} gefunden", dozenten.size(), distinctIds.size());
+        return dozenten;
+    }
+
     /**
      * Dozenten anhand von Suchkriterien als Collection suchen.
      *
@@ -82,55 +197,159 @@ public class DozentReadService {
      * @return Die gefundenen Dozenten oder eine leere Liste
      * @throws NotFoundException Falls keine Dozenten gefunden wurden
      */
-    @SuppressWarnings("ReturnCount")
+    @Transactional(readOnly = true, propagation = SUPPORTS)
+    @ManualAdmission
     public @NonNull Collection<Dozent> find(@NonNull final Map<String, List<String>> suchkriterien) {
         log.debug("find: suchkriterien={}", suchkriterien);
+        final var criteria = normalize(suchkriterien);
+        final var dozenten = coalesce(findFlight, criteria, () -> cachedQuery(criteria));
+        if (dozenten.isEmpty() && !suchkriterien.isEmpty()) {
+            throw new NotFoundException(suchkriterien);
+        }
+        log.debug("find: {}", dozenten);
+        return dozenten;
+    }
 
+    /**
+     * Dozenten anhand von Suchkriterien suchen und einzeln verarbeiten, während sie aus der DB gelesen werden, z.B. um
+     * sie sofort zu serialisieren. Jeder Dozent wird vor der Verarbeitung aus dem Persistenzkontext entfernt, so dass
+     * der Speicherbedarf nicht mit der Anzahl der Dozenten wächst. Die Connection ist bis zum letzten Dozenten belegt.
+     * Gleichzeitige Aufrufe werden nicht zusammengefasst; bei einem Treffer im QueryResultCache werden die Dozenten
+     * anhand der gecachten IDs geladen. Weil der Client das Tempo bestimmt, belegt der Aufruf bis zum letzten Dozenten
+     * eine der wenigen Zulassungen für Streams statt einer Zulassung für lesende Zugriffe; die Dauer ist durch die
+     * Deadline des Requests begrenzt, die vor jedem Dozenten geprüft wird.
+     *
+     * @param suchkriterien Die Suchkriterien
+     * @param action Die Verarbeitung eines Dozenten
+     * @throws NotFoundException Falls keine Dozenten zu nicht-leeren Suchkriterien gefunden wurden
+     * @throws com.acme.dozent.admission.AdmissionRejectedException Falls alle Zulassungen für Streams belegt sind
+     */
+    @Transactional(readOnly = true, propagation = SUPPORTS)
+    @ManualAdmission
+    public void forEach(
+        @NonNull final Map<String, List<String>> suchkriterien,
+        @NonNull final Consumer<? super Dozent> action
+    ) {
+        log.debug("forEach: suchkriterien={}", suchkriterien);
+        final var criteria = normalize(suchkriterien);
+        final var generation = queryCache.getGeneration();
+        final List<UUID> cachedIds = queryCache.get(FIND, criteria, generation);
+        final var ids = new ArrayList<UUID>();
+        final var deadline = Deadline.current();
+        try (var _ = admission.acquireStream()) {
+            readOnlyTransaction.executeWithoutResult(_ -> {
+                try (var dozenten = cachedIds == null ? stream(criteria) : loadInOrder(cachedIds).stream()) {
+                    dozenten.forEach(dozent -> {
+                        // z.B. nach Ablauf der Frist, waehrend der Client langsam liest
+                        if (deadline != null && deadline.isAborted()) {
+                            throw new QueryTimeoutException("Frist beim Lesen der Dozenten abgelaufen");
+                        }
+                        ids.add(dozent.getId());
+                        entityManager.detach(dozent);
+                        action.accept(dozent);
+                    });
+                }
+            });
+        }
+        if (cachedIds == null) {
+            queryCache.put(FIND, criteria, generation, ids);
+        }
+        if (ids.isEmpty() && !suchkriterien.isEmpty()) {
+            throw new NotFoundException(suchkriterien);
+        }
+        log.debug("forEach: {} Dozenten", ids.size());
+    }
+
+    // gleiche Suchkriterien in anderer Reihenfolge ergeben denselben Schluessel fuer SingleFlight und QueryResultCache
+    private static Map<String, List<String>> normalize(final Map<String, List<String>> suchkriterien) {
+        return suchkriterien.entrySet()
+            .stream()
+            .collect(Collectors.toUnmodifiableMap(
+                Map.Entry::getKey,
+                entry -> entry.getValue().stream().sorted().toList()
+            ));
+    }
+
+    // bei einem Treffer werden die Dozenten anhand der gecachten IDs mit einer einzigen SQL-Anweisung geladen
+    private List<Dozent> cachedQuery(final Map<String, List<String>> criteria) {
+        final var generation = queryCache.getGeneration();
+        final List<UUID> ids = queryCache.get(FIND, criteria, generation);
+        if (ids != null) {
+            log.trace("cachedQuery: {} IDs im Cache", ids.size());
+            return loadInOrder(ids);
+        }
+        final var dozenten = query(criteria);
+        queryCache.put(FIND, criteria, generation, dozenten.stream().map(Dozent::getId).toList());
+        return dozenten;
+    }
+
+    private List<Dozent> loadInOrder(final List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        final var gefunden = repo.findAllByIds(ids)
+            .stream()
+            .collect(Collectors.toMap(Dozent::getId, Function.identity()));
+        return ids.stream()
+            .map(gefunden::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private List<Dozent> query(final Map<String, List<String>> suchkriterien) {
+        try (var dozenten = stream(suchkriterien)) {
+            return dozenten.toList();
+        }
+    }
+
+    // nur innerhalb einer Transaktion
+    @SuppressWarnings("ReturnCount")
+    private Stream<Dozent> stream(final Map<String, List<String>> suchkriterien) {
         if (suchkriterien.isEmpty()) {
-            return repo.findAll();
+            return repo.streamAll();
         }
 
         if (suchkriterien.size() == 1) {
             final var namen = suchkriterien.get("name");
             if (namen != null && namen.size() == 1) {
-                return findByName(namen.getFirst(), suchkriterien);
+                log.trace("stream: name={}", namen.getFirst());
+                return repo.streamByName(namen.getFirst());
             }
 
             final var emails = suchkriterien.get("email");
             if (emails != null && emails.size() == 1) {
-                return findByEmail(emails.getFirst(), suchkriterien);
+                log.trace("stream: email={}", emails.getFirst());
+                return repo.findByEmail(emails.getFirst()).stream();
             }
         }
 
-        final var specification = specificationBuilder
+        // Suche mit mehreren Suchkriterien: i.a. wenige Treffer
+        return specificationBuilder
             .build(suchkriterien)
-            .orElseThrow(() -> new NotFoundException(suchkriterien));
-        final var dozenten = repo.findAll(specification);
-        if (dozenten.isEmpty()) {
-            throw new NotFoundException(suchkriterien);
-        }
-        log.debug("find: {}", dozenten);
-        return dozenten;
+            .map(spec -> repo.findAll(spec).stream())
+            .orElseGet(Stream::empty);
     }
 
-    private List<Dozent> findByName(final String name, final Map<String, List<String>> suchkriterien) {
-        log.trace("findByName: {}", name);
-        final var dozenten = repo.findByName(name);
-        if (dozenten.isEmpty()) {
-            throw new NotFoundException(suchkriterien);
+    // innerhalb einer bestehenden Transaktion kein Zusammenfassen, weil die Entities dann zu deren Persistenzkontext
+    // gehoeren; sonst belegt nur die gemeinsame Abfrage eine Zulassung, nicht die wartenden Aufrufer
+    private <K, V> V coalesce(final SingleFlight<K, V> flight, final K key, final Supplier<V> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return admission.read(query);
         }
-        log.debug("findByName: {}", dozenten);
-        return dozenten;
+        return flight.execute(key, () -> admission.read(() -> readOnlyTransaction.execute(_ -> query.get())));
     }
 
-    private Collection<Dozent> findByEmail(final String email, final Map<String, List<String>> suchkriterien) {
-        log.trace("findByEmail: {}", email);
-        final var dozent = repo
-            .findByEmail(email)
-            .orElseThrow(() -> new NotFoundException(suchkriterien));
-        final var dozenten = List.of(dozent);
-        log.debug("findByEmail: {}", dozenten);
-        return dozenten;
+    /**
+     * Die Kurse zu mehreren Dozenten mit einer SQL-Anweisung laden, z.B. für einen DataLoader bei GraphQL.
+     *
+     * @param ids IDs der Dozenten
+     * @return Die Kurse je Dozent-ID
+     */
+    public @NonNull Map<UUID, List<Kurs>> findKurse(@NonNull final Collection<UUID> ids) {
+        log.debug("findKurse: ids={}", ids);
+        return repo.findAllByIdFetchKurse(ids)
+            .stream()
+            .collect(Collectors.toMap(Dozent::getId, dozent -> List.copyOf(dozent.getKurse())));
     }
 
     /**
@@ -140,9 +359,17 @@ public class DozentReadService {
      * @return Die passenden Namen in alphabetischer Reihenfolge.
      * @throws NotFoundException Falls keine Namen gefunden wurden.
      */
+    @Transactional(readOnly = true, propagation = SUPPORTS)
     public @NonNull List<String> findNamenByPrefix(final String prefix) {
         log.debug("findNamenByPrefix: {}", prefix);
-        final var namen = repo.findNamenByPrefix(prefix);
+        // der Vergleich in der DB erfolgt mit lower()
+        final var criteria = prefix.toLowerCase(Locale.ROOT);
+        final var generation = queryCache.getGeneration();
+        var namen = queryCache.<String>get(NAMEN, criteria, generation);
+        if (namen == null) {
+            namen = readOnlyTransaction.execute(_ -> repo.findNamenByPrefix(prefix));
+            queryCache.put(NAMEN, criteria, generation, namen);
+        }
         if (namen.isEmpty()) {
             //noinspection NewExceptionWithoutArguments
             throw new NotFoundException();
@@ -150,4 +377,7 @@ public class DozentReadService {
         log.debug("findNamenByPrefix: {}", namen);
         return namen;
     }
+
+    private record IdKey(UUID id, boolean fetchKurse) {
+    }
 }
@@ -7,8 +7,13 @@ import java.util.Objects;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Anwendungslogik für Dozenten auch mit Bean Validation.
@@ -21,9 +26,14 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 @Slf4j
 public class DozentWriteService {
+    // Name des UNIQUE-Constraints fuer dozent.email bei PostgreSQL, siehe V1.0__Create.sql
+    private static final String EMAIL_CONSTRAINT = "dozent_email_key";
+
     private final DozentRepository repo;
     // private final CustomUserDetailsService userService; // NOSONAR
     private final Mailer mailer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NegativeLookupCache negativeLookupCache;
 
     /**
      * Einen neuen Dozenten anlegen.
@@ -40,17 +50,27 @@ public class DozentWriteService {
         log.debug("create: adresse={}", dozent.getAdresse());
         log.debug("create: kurse={}", dozent.getKurse());
 
-        if (repo.existsByEmail(dozent.getEmail())) {
+        // Bloom-Filter: bei einer im Pod sicher unbekannten Emailadresse keine Abfrage an die DB, s. saveAndFlush()
+        if (negativeLookupCache.mightContainEmail(dozent.getEmail()) && repo.existsByEmail(dozent.getEmail())) {
             throw new EmailExistsException(dozent.getEmail());
         }
+        negativeLookupCache.addEmail(dozent.getEmail());
 
         // final var login = userService.save(user); // NOSONAR
         dozent.setUsername("user");
 
-        final var dozentDB = repo.save(dozent);
+        final var dozentDB = saveAndFlush(dozent);
+
+        eventPublisher.publishEvent(new DozentGeaendertEvent(dozentDB.getId(), dozentDB.getEmail()));
 
         log.trace("create: Thread-ID={}", Thread.currentThread().threadId());
-        mailer.send(dozentDB);
+        // Email erst nach dem Commit, nicht bei einem Rollback
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                mailer.send(dozentDB);
+            }
+        });
 
         log.debug("create: dozentDB={}", dozentDB);
         return dozentDB;
@@ -82,17 +102,36 @@ public class DozentWriteService {
 
         final var email = dozent.getEmail();
         // Ist die neue E-Mail bei einem *ANDEREN* Dozenten vorhanden?
-        if (!Objects.equals(email, dozentDb.getEmail()) && repo.existsByEmail(email)) {
-            log.debug("update: email {} existiert", email);
-            throw new EmailExistsException(email);
+        if (!Objects.equals(email, dozentDb.getEmail())) {
+            if (negativeLookupCache.mightContainEmail(email) && repo.existsByEmail(email)) {
+                log.debug("update: email {} existiert", email);
+                throw new EmailExistsException(email);
+            }
+            negativeLookupCache.addEmail(email);
         }
         log.trace("update: Kein Konflikt mit der Emailadresse");
 
         // Zu ueberschreibende Werte uebernehmen
         dozentDb.set(dozent);
-        dozentDb = repo.save(dozentDb);
+        dozentDb = saveAndFlush(dozentDb);
+        eventPublisher.publishEvent(new DozentGeaendertEvent(id, dozentDb.getEmail()));
 
         log.debug("update: {}", dozentDb);
         return dozentDb;
     }
+
+    // Der Bloom-Filter kennt nur die Emailadressen dieses Pods: eine Emailadresse, die ein anderer Pod gespeichert hat,
+    // erkennt erst der UNIQUE-Constraint beim Flush
+    private Dozent saveAndFlush(final Dozent dozent) {
+        try {
+            return repo.saveAndFlush(dozent);
+        } catch (final DataIntegrityViolationException ex) {
+            if (ex.getCause() instanceof ConstraintViolationException violation
+                && EMAIL_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())) {
+                log.debug("saveAndFlush: email {} existiert", dozent.getEmail());
+                throw new EmailExistsException(dozent.getEmail());
+            }
+            throw ex;
+        }
+    }
 }
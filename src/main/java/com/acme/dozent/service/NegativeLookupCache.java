@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.service;
+
+import com.acme.dozent.NegativeLookupProps;
+import com.acme.dozent.repository.DozentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Locale;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Negative Ergebnisse ohne DB-Zugriff: ein Bloom-Filter mit den Emailadressen in Kleinbuchstaben, der beim Start vor
+ * der Readiness aufgebaut und bei Neuanlage und Änderung ergänzt wird, und ein Cache mit kurzer Lebensdauer für IDs,
+ * zu denen es keinen Dozenten gibt. Bis der Bloom-Filter aufgebaut ist, wird immer die DB abgefragt.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+public class NegativeLookupCache implements ApplicationRunner {
+    private final NegativeLookupProps props;
+    private final DozentRepository repo;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<UUID, Boolean> missingIds;
+    private final Counter emailSkipped;
+    private final Counter emailChecked;
+
+    // Filter fuer Abfragen; null waehrend des Aufbaus
+    private volatile BloomFilter emails;
+
+    // zuletzt erstellter Filter, der schon waehrend des Aufbaus ergaenzt wird
+    private volatile BloomFilter latest;
+
+    NegativeLookupCache(
+        final NegativeLookupProps props,
+        final DozentRepository repo,
+        final PlatformTransactionManager transactionManager,
+        final MeterRegistry meterRegistry
+    ) {
+        this.props = props;
+        this.repo = repo;
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        missingIds = Caffeine.newBuilder()
+            .maximumSize(props.maxMissingIds())
+            .expireAfterWrite(props.missingIdTtl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, missingIds, "dozent.missing-ids");
+        emailSkipped = Counter.builder("dozent.email.filter")
+            .description("Prüfungen auf eine vorhandene Emailadresse")
+            .tag("result", "skipped")
+            .register(meterRegistry);
+        emailChecked = Counter.builder("dozent.email.filter")
+            .description("Prüfungen auf eine vorhandene Emailadresse")
+            .tag("result", "checked")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void run(@NonNull final ApplicationArguments args) {
+        if (props.enabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Den Bloom-Filter aus der DB neu aufbauen und die nicht gefundenen IDs verwerfen, z.B. nach Änderungen direkt in
+     * der DB.
+     */
+    public synchronized void rebuild() {
+        missingIds.invalidateAll();
+        if (!props.enabled()) {
+            return;
+        }
+        final var start = System.nanoTime();
+        final var anzahl = repo.count();
+        final var filter = new BloomFilter(Math.max(props.expectedEmails(), 2 * anzahl), props.falsePositiveRate());
+        // zuerst latest, dann emails: Emailadressen werden waehrend des Aufbaus in beide Filter eingetragen
+        latest = filter;
+        emails = null;
+        readOnlyTransaction.executeWithoutResult(_ -> {
+            try (var stream = repo.streamEmails()) {
+                stream.forEach(filter::put);
+            }
+        });
+        emails = filter;
+        log.info("rebuild: {} Emailadressen in {} ms", anzahl, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Abfrage, ob es eine Emailadresse geben könnte, so dass die DB abgefragt werden muss.
+     *
+     * @param email Die Emailadresse
+     * @return false, falls es die Emailadresse sicher nicht gibt
+     */
+    boolean mightContainEmail(final String email) {
+        final var filter = emails;
+        if (filter == null || filter.mightContain(email.toLowerCase(Locale.ROOT))) {
+            emailChecked.increment();
+            return true;
+        }
+        emailSkipped.increment();
+        return false;
+    }
+
+    /**
+     * Eine Emailadresse eintragen, und zwar vor dem Commit wegen gleichzeitiger Neuanlagen und nach dem Commit wegen
+     * eines gleichzeitigen Aufbaus.
+     *
+     * @param email Die Emailadresse
+     */
+    void addEmail(final String email) {
+        final var normalized = email.toLowerCase(Locale.ROOT);
+        final var filter = emails;
+        if (filter != null) {
+            filter.put(normalized);
+        }
+        final var neu = latest;
+        if (neu != null && neu != filter) {
+            neu.put(normalized);
+        }
+    }
+
+    /**
+     * Abfrage, ob zu einer ID kürzlich kein Dozent gefunden wurde.
+     *
+     * @param id Die ID
+     * @return true, falls die ID als nicht vorhanden gilt
+     */
+    boolean isMissing(final UUID id) {
+        return props.enabled() && missingIds.getIfPresent(id) != null;
+    }
+
+    /**
+     * Eine ID ohne Dozent eintragen.
+     *
+     * @param id Die ID
+     */
+    void addMissing(final UUID id) {
+        if (props.enabled()) {
+            missingIds.put(id, Boolean.TRUE);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onDozentGeaendert(final DozentGeaendertEvent event) {
+        missingIds.invalidate(event.id());
+        addEmail(event.email());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.service;
+
+import com.acme.dozent.QueryCacheProps;
+import com.acme.dozent.ReplicaProps;
+import com.acme.dozent.replica.ConsistencyToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cache für die Resultate von Suchen mit Suchkriterien und von Namen-Präfixen. Gecacht werden nur IDs bzw. Namen
+ * und keine Entities. Jeder Schlüssel enthält die Generation zu Beginn der Suche; nach dem Commit einer Änderung wird
+ * die Generation erhöht, so dass alle bisherigen Einträge ohne Verwaltung einzelner Schlüssel ungültig sind und durch
+ * die Größenbeschränkung bzw. den Ablauf verdrängt werden.
+ * <p>
+ * Requests mit Konsistenz-Token lesen von der primären DB und verwenden den Cache nicht. Mit Read-Replicas werden
+ * Resultate erst gecacht, wenn seit der letzten Änderung die tolerierte Verzögerung der Replikation vergangen ist,
+ * weil eine Replica die Änderung bis dahin evtl. noch nicht enthält und das veraltete Resultat sonst unter der neuen
+ * Generation gecacht würde.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Component
+@Slf4j
+public class QueryResultCache {
+    private final QueryCacheProps props;
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<Key, List<?>> cache;
+    // ohne Replicas wird immer von der primaeren DB gelesen
+    private final long replicationLagNanos;
+    private volatile long changedAt;
+
+    QueryResultCache(final QueryCacheProps props, final ReplicaProps replicaProps, final MeterRegistry meterRegistry) {
+        this.props = props;
+        replicationLagNanos = replicaProps.urls().isEmpty() ? 0 : replicaProps.readYourWrites().toNanos();
+        changedAt = System.nanoTime() - replicationLagNanos;
+        cache = Caffeine.newBuilder()
+            .maximumSize(props.maxEntries())
+            .expireAfterWrite(props.ttl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "dozent.query");
+        Gauge.builder("dozent.query.generation", generation, AtomicLong::get)
+            .description("Generation des Caches für Suchresultate")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Die aktuelle Generation, die vor einer Suche ermittelt und beim Cachen des Resultats verwendet wird.
+     *
+     * @return Die aktuelle Generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Abfrage der Anzahl der Einträge einschließlich der Einträge früherer Generationen.
+     *
+     * @return Anzahl der Einträge
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Alle Einträge verwerfen, z.B. nach Änderungen direkt in der DB.
+     */
+    public void flush() {
+        changedAt = System.nanoTime();
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        log.debug("flush: generation={}", generation.get());
+    }
+
+    /**
+     * Ein gecachtes Resultat ermitteln.
+     *
+     * @param query Name der Suche
+     * @param criteria Normalisierte Suchkriterien
+     * @param currentGeneration Die Generation zu Beginn der Suche
+     * @param <V> Typ der IDs bzw. Namen
+     * @return Das gecachte Resultat oder null, auch falls die primäre DB verwendet werden muss
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    <V> List<V> get(final String query, final Object criteria, final long currentGeneration) {
+        if (!props.enabled() || ConsistencyToken.isPrimaryRequired()) {
+            return null;
+        }
+        return (List<V>) cache.getIfPresent(new Key(query, criteria, currentGeneration));
+    }
+
+    /**
+     * Ein Resultat cachen, falls es nicht zu groß ist und weder wegen eines Konsistenz-Tokens von der primären DB noch
+     * innerhalb der tolerierten Verzögerung nach einer Änderung von einer Replica gelesen wurde.
+     *
+     * @param query Name der Suche
+     * @param criteria Normalisierte Suchkriterien
+     * @param searchGeneration Die Generation zu Beginn der Suche
+     * @param values IDs bzw. Namen
+     */
+    void put(final String query, final Object criteria, final long searchGeneration, final List<?> values) {
+        if (!props.enabled() || values.size() > props.maxResultSize() || ConsistencyToken.isPrimaryRequired()) {
+            return;
+        }
+        if (System.nanoTime() - changedAt < replicationLagNanos) {
+            log.trace("put: {} nicht gecacht, Replica evtl. veraltet", query);
+            return;
+        }
+        cache.put(new Key(query, criteria, searchGeneration), List.copyOf(values));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onDozentGeaendert(final DozentGeaendertEvent event) {
+        changedAt = System.nanoTime();
+        final var neu = generation.incrementAndGet();
+        log.trace("onDozentGeaendert: id={}, generation={}", event.id(), neu);
+    }
+
+    private record Key(String query, Object criteria, long generation) {
+    }
+}
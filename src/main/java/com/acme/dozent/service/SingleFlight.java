@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.service;
+
+import com.acme.dozent.deadline.Deadline;
+import com.acme.dozent.deadline.DeadlineExceededException;
+import com.acme.dozent.replica.ConsistencyToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.dao.QueryTimeoutException;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Zusammenfassen gleichzeitiger, identischer Abfragen ("single flight"): Der erste Aufrufer zu einem Schlüssel führt
+ * die Abfrage aus, weitere Aufrufer mit demselben Schlüssel warten auf dessen Resultat bzw. Exception. Nach dem Ende
+ * der Abfrage wird der Schlüssel entfernt, d.h. es werden keine Resultate gecacht. Abfragen, die wegen eines
+ * Konsistenz-Tokens die primäre DB verwenden, werden nicht mit Abfragen an eine Replica zusammengefasst. Ein wartender
+ * Aufrufer wartet höchstens bis zum Ablauf seiner eigenen Frist und führt die Abfrage selbst aus, falls die Frist des
+ * ersten Aufrufers abgelaufen ist.
+ *
+ * @param <K> Typ des Schlüssels
+ * @param <V> Typ des Resultats
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+final class SingleFlight<K, V> {
+    private final ConcurrentMap<Key<K>, CompletableFuture<V>> inflight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    /**
+     * Konstruktor mit Metriken "dozent.singleflight.*" für die Abfrage.
+     *
+     * @param query Name der Abfrage für das Tag "query"
+     * @param meterRegistry Registry für die Metriken
+     */
+    SingleFlight(final String query, final MeterRegistry meterRegistry) {
+        executed = Counter.builder("dozent.singleflight.executed")
+            .description("Ausgeführte Abfragen")
+            .tag("query", query)
+            .register(meterRegistry);
+        coalesced = Counter.builder("dozent.singleflight.coalesced")
+            .description("Aufrufe, die das Resultat einer gleichzeitigen Abfrage übernommen haben")
+            .tag("query", query)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Die Abfrage ausführen oder auf das Resultat einer gleichzeitigen Abfrage mit demselben Schlüssel warten.
+     *
+     * @param key Schlüssel der Abfrage
+     * @param query Die Abfrage
+     * @return Das Resultat der Abfrage
+     * @throws QueryTimeoutException Falls die eigene Frist beim Warten abgelaufen ist
+     */
+    V execute(final K key, final Supplier<V> query) {
+        final var flightKey = new Key<>(key, ConsistencyToken.isPrimaryRequired());
+        final var future = new CompletableFuture<V>();
+        final var existing = inflight.putIfAbsent(flightKey, future);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing, query);
+        }
+
+        executed.increment();
+        try {
+            final var result = query.get();
+            inflight.remove(flightKey, future);
+            future.complete(result);
+            return result;
+        } catch (final RuntimeException | Error ex) {
+            inflight.remove(flightKey, future);
+            future.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private V await(final CompletableFuture<V> existing, final Supplier<V> query) {
+        final var deadline = Deadline.current();
+        try {
+            return deadline == null ? existing.get() : existing.get(deadline.remaining().toNanos(), NANOSECONDS);
+        } catch (final TimeoutException ex) {
+            throw new QueryTimeoutException("Frist beim Warten auf eine gleichzeitige Abfrage abgelaufen", ex);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (final ExecutionException ex) {
+            // die Frist des ersten Aufrufers ist abgelaufen, aber nicht unbedingt die eigene
+            if (isTimeout(ex.getCause()) && (deadline == null || !deadline.isAborted())) {
+                executed.increment();
+                return query.get();
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    // Deadline liefert SQLTimeoutException, die Spring in QueryTimeoutException uebersetzt
+    private static boolean isTimeout(final Throwable ex) {
+        for (var cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTimeoutException || cause instanceof QueryTimeoutException
+                || cause instanceof DeadlineExceededException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Key<K>(K key, boolean primary) {
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.controller;
+
+import com.acme.dozent.repository.DozentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import static com.acme.dozent.controller.DozentMediaTypes.SMILE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.hateoas.MediaTypes.HAL_JSON;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+
+/**
+ * Messung von Serialisierung und Deserialisierung mit denselben ObjectMappern wie bei GET-Requests, d.h. der Kosten
+ * auf beiden Seiten, die extras/binary-formats.ps1 nicht erfasst. Deserialisiert wird in einen Baum wie bei einem
+ * Client ohne die Klasse DozentModel. Aufruf mit <code>./gradlew test -Ptest=binary-formats</code> für die 3 Dozenten
+ * aus V1.1__Insert.sql.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Tag("binary-formats")
+@DisplayName("Serialisierung und Deserialisierung von HAL, CBOR und Smile")
+@SpringBootTest
+class DozentMediaTypesTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DozentMediaTypesTest.class);
+    private static final List<UUID> IDS = List.of(
+        UUID.fromString("00000000-0000-0000-0000-000000000000"),
+        UUID.fromString("00000000-0000-0000-0000-000000000001"),
+        UUID.fromString("00000000-0000-0000-0000-000000000002")
+    );
+    private static final String BASE_URI = "https://localhost:8080/rest/";
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private final DozentMediaTypes mediaTypes;
+    private final List<DozentModel> models;
+
+    @Autowired
+    DozentMediaTypesTest(final DozentMediaTypes mediaTypes, final DozentRepository repo) {
+        this.mediaTypes = mediaTypes;
+        models = repo.findAllByIdFetchKurse(IDS)
+            .stream()
+            .map(dozent -> new DozentModel(dozent).add(Link.of(BASE_URI + dozent.getId())))
+            .toList();
+    }
+
+    @Test
+    @DisplayName("Ungültiger Header Accept wird wie HAL behandelt")
+    void selectInvalid() {
+        // when
+        final var mediaType = DozentMediaTypes.select("cbor");
+
+        // then
+        assertThat(mediaType).isEqualTo(HAL_JSON);
+    }
+
+    @Test
+    @DisplayName("Round-Trip mit HAL, CBOR und Smile")
+    void roundTrip() throws IOException {
+        // given
+        final var halMapper = mediaTypes.mapper(HAL_JSON);
+        final var expected = halMapper.readTree(mediaTypes.writer(HAL_JSON).writeValueAsBytes(models.getFirst()));
+
+        for (final var mediaType : List.of(HAL_JSON, APPLICATION_CBOR, SMILE)) {
+            final var writer = mediaTypes.writer(mediaType);
+            final var mapper = mediaTypes.mapper(mediaType);
+
+            // when
+            final var bytes = serialize(writer, WARMUP);
+            deserialize(mapper, bytes, WARMUP);
+            final var startSerialize = System.nanoTime();
+            serialize(writer, ITERATIONS);
+            final var serializeNanos = System.nanoTime() - startSerialize;
+            final var startDeserialize = System.nanoTime();
+            deserialize(mapper, bytes, ITERATIONS);
+            final var deserializeNanos = System.nanoTime() - startDeserialize;
+
+            // then
+            final var tree = mapper.readTree(bytes.getFirst());
+            assertThat(tree.get("name")).isEqualTo(expected.get("name"));
+            assertThat(tree.get("_links")).isEqualTo(expected.get("_links"));
+            final var anzahl = (double) ITERATIONS * models.size();
+            LOGGER.info(
+                "{}: bytes={}, serialisieren={} us, deserialisieren={} us",
+                mediaType,
+                bytes.stream().mapToInt(b -> b.length).sum(),
+                String.format("%.2f", serializeNanos / NANOS_PER_MICRO / anzahl),
+                String.format("%.2f", deserializeNanos / NANOS_PER_MICRO / anzahl)
+            );
+        }
+    }
+
+    private List<byte[]> serialize(final ObjectWriter writer, final int iterations) throws JsonProcessingException {
+        List<byte[]> bytes = List.of();
+        for (var i = 0; i < iterations; i++) {
+            bytes = serialize(writer);
+        }
+        return bytes;
+    }
+
+    private List<byte[]> serialize(final ObjectWriter writer) throws JsonProcessingException {
+        final var bytes = new byte[models.size()][];
+        for (var i = 0; i < bytes.length; i++) {
+            bytes[i] = writer.writeValueAsBytes(models.get(i));
+        }
+        return List.of(bytes);
+    }
+
+    private static void deserialize(final ObjectMapper mapper, final List<byte[]> bytes, final int iterations)
+        throws IOException {
+        var felder = 0;
+        for (var i = 0; i < iterations; i++) {
+            for (final var value : bytes) {
+                felder += mapper.readTree(value).size();
+            }
+        }
+        assertThat(felder).isPositive();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.monitoring;
+
+import com.acme.dozent.entity.Dozent;
+import com.acme.dozent.repository.DozentRepository;
+import jakarta.servlet.FilterChain;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integrationstest für das Budget an SQL-Anweisungen pro Request mit <code>app.query-budget.fail-on-exceed=true</code>
+ * aus src/test/resources/config/application.yml und den 3 Dozenten aus V1.1__Insert.sql.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Tag("integration")
+@Tag("query-budget")
+@DisplayName("Budget an SQL-Anweisungen pro Request")
+@SpringBootTest(properties = "app.query-budget.max-statements=" + QueryBudgetTest.MAX_STATEMENTS)
+class QueryBudgetTest {
+    static final int MAX_STATEMENTS = 3;
+
+    private final QueryBudgetFilter filter;
+    private final DozentRepository repo;
+    private final TransactionTemplate transaction;
+
+    @Autowired
+    QueryBudgetTest(
+        final QueryBudgetFilter filter,
+        final DozentRepository repo,
+        final PlatformTransactionManager transactionManager
+    ) {
+        this.filter = filter;
+        this.repo = repo;
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    @DisplayName("N+1 Queries brechen den Request ab")
+    void nPlusOne() {
+        // given
+        final var request = new MockHttpServletRequest("GET", "/rest");
+        final var response = new MockHttpServletResponse();
+        // 1 SQL-Anweisung fuer die Dozenten und je Dozent 1 SQL-Anweisung fuer die Kurse
+        final FilterChain chain = (_, _) -> transaction.executeWithoutResult(_ -> repo.findAll()
+            .forEach(dozent -> dozent.getKurse().size()));
+
+        // when + then
+        assertThatThrownBy(() -> filter.doFilter(request, response, chain)).satisfiesAnyOf(
+            ex -> assertThat(ex).isInstanceOf(QueryBudgetExceededException.class),
+            ex -> assertThat(ex).hasRootCauseInstanceOf(QueryBudgetExceededException.class)
+        );
+        assertThat(StatementCounter.current()).isZero();
+    }
+
+    @Test
+    @DisplayName("Kurse mit derselben SQL-Anweisung laden")
+    void fetchKurse() {
+        // given: ohne Budget, weil ausserhalb des Filters
+        final var request = new MockHttpServletRequest("GET", "/rest");
+        final var response = new MockHttpServletResponse();
+        final List<Dozent> dozenten = repo.findAll();
+        final var ids = dozenten.stream().map(Dozent::getId).toList();
+        final FilterChain chain = (_, _) -> transaction.executeWithoutResult(_ -> repo.findAllByIdFetchKurse(ids)
+            .forEach(dozent -> dozent.getKurse().size()));
+
+        // when + then
+        assertThat(ids).hasSizeGreaterThanOrEqualTo(MAX_STATEMENTS);
+        assertThatCode(() -> filter.doFilter(request, response, chain)).doesNotThrowAnyException();
+    }
+}
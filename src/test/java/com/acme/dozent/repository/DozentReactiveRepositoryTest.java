@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2022 - present Maja Pfannendörfer, Hochschule Karlsruhe
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.acme.dozent.repository;
+
+import com.acme.dozent.entity.Dozent;
+import io.r2dbc.spi.ConnectionFactories;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test für das nicht-blockierende Repository mit R2DBC und einer In-Memory-DB von H2. Die Tabellen entsprechen
+ * V1.0__Create.sql ohne die PostgreSQL-spezifischen Constraints und Fremdschlüssel.
+ *
+ * @author <a href="mailto:Maja.Pfannendoerfer@h-ka.de">Maja Pfannendörfer</a>
+ */
+@Tag("unit")
+@Tag("r2dbc")
+@DisplayName("Nicht-blockierendes Repository mit R2DBC und H2")
+class DozentReactiveRepositoryTest {
+    private static final String URL = "r2dbc:h2:mem:///dozent-reactive;DB_CLOSE_DELAY=-1";
+
+    private static final List<String> SQL = List.of(
+        """
+            CREATE TABLE adresse (
+                id  UUID PRIMARY KEY,
+                plz CHAR(5) NOT NULL,
+                ort VARCHAR(40) NOT NULL
+            )
+            """,
+        """
+            CREATE TABLE dozent (
+                id           UUID PRIMARY KEY,
+                version      INTEGER NOT NULL DEFAULT 0,
+                name         VARCHAR(40) NOT NULL,
+                email        VARCHAR(40) NOT NULL UNIQUE,
+                geburtsdatum DATE,
+                geschlecht   VARCHAR(9),
+                homepage     VARCHAR(40),
+                adresse_id   UUID NOT NULL UNIQUE REFERENCES adresse(id),
+                username     VARCHAR(20) NOT NULL
+            )
+            """,
+        """
+            INSERT INTO adresse (id, plz, ort)
+            VALUES
+                ('20000000-0000-0000-0000-000000000000', '12345', 'Karlsruhe'),
+                ('20000000-0000-0000-0000-000000000001', '23456', 'Berlin'),
+                ('20000000-0000-0000-0000-000000000002', '34567', 'Stuttgart')
+            """,
+        """
+            INSERT INTO dozent (id, version, name, email, geburtsdatum, geschlecht, homepage, adresse_id, username)
+            VALUES
+                ('00000000-0000-0000-0000-000000000000', 0, 'Michael Maier', 'm.maier@uni_example.com',
+                 '1950-10-01', 'MAENNLICH', 'https://www.uni-mm.example.com', '20000000-0000-0000-0000-000000000000',
+                 'admin'),
+                ('00000000-0000-0000-0000-000000000001', 0, 'Simon Schmidt', 's.schmidt@uni_example.com',
+                 '1960-01-05', 'MAENNLICH', 'https://www.uni-ss.example.com', '20000000-0000-0000-0000-000000000001',
+                 'user'),
+                ('00000000-0000-0000-0000-000000000002', 0, 'Birgit Bach', 'b.bach@uni_example.com',
+                 '1970-07-12', 'WEIBLICH', NULL, '20000000-0000-0000-0000-000000000002', 'user')
+            """
+    );
+
+    private DozentReactiveRepository repo;
+
+    @BeforeAll
+    void setUp() {
+        final var connectionFactory = ConnectionFactories.get(URL);
+        final var client = DatabaseClient.create(connectionFactory);
+        Flux.fromIterable(SQL)
+            .concatMap(sql -> client.sql(sql).then())
+            .blockLast();
+        repo = new DozentReactiveRepository(connectionFactory);
+    }
+
+    @Test
+    @DisplayName("Alle Dozenten sortiert nach dem Namen und mit Adresse")
+    void findAll() {
+        // when
+        final var dozenten = repo.findAll().collectList().block();
+
+        // then
+        assertThat(dozenten)
+            .extracting(Dozent::getName)
+            .containsExactly("Birgit Bach", "Michael Maier", "Simon Schmidt");
+        assertThat(dozenten)
+            .allSatisfy(dozent -> assertThat(dozent.getAdresse().getPlz()).hasSize(5));
+    }
+
+    @Test
+    @DisplayName("Dozenten zu einem Teil des Namens ohne Beachtung der Groß-/Kleinschreibung")
+    void findByName() {
+        // when
+        final var dozenten = repo.findByName("MAI").collectList().block();
+
+        // then
+        assertThat(dozenten).singleElement().satisfies(dozent -> {
+            assertThat(dozent.getName()).isEqualTo("Michael Maier");
+            assertThat(dozent.getHomepage()).hasToString("https://www.uni-mm.example.com");
+            assertThat(dozent.getAdresse().getOrt()).isEqualTo("Karlsruhe");
+        });
+    }
+
+    @Test
+    @DisplayName("Dozent ohne Homepage")
+    void ohneHomepage() {
+        // when
+        final var dozenten = repo.findByName("Bach").collectList().block();
+
+        // then
+        assertThat(dozenten).singleElement().satisfies(dozent -> assertThat(dozent.getHomepage()).isNull());
+    }
+
+    @Test
+    @DisplayName("Abbruch durch den Client nach dem ersten Dozenten")
+    void cancel() {
+        // when
+        final var dozenten = repo.findAll().take(1).collectList().block();
+
+        // then
+        assertThat(dozenten).extracting(Dozent::getName).containsExactly("Birgit Bach");
+    }
+}